@@ -0,0 +1,65 @@
+package org.axerold;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет, что граф вне кучи совпадает с {@link CsrGraph}, построенным из тех же рёбер, и что алгоритмы
+ * дают на нём те же деревья.
+ */
+class OffHeapCsrGraphTest {
+
+    @Test
+    void offHeapGraphMatchesCsrGraph() {
+        // arrange
+        int n = 500;
+        Random random = new Random(23);
+        CsrGraph.Builder heapBuilder = CsrGraph.builder(n);
+        OffHeapCsrGraph.Builder offHeapBuilder = OffHeapCsrGraph.builder(n);
+        for (int k = 0; k < 3000; k++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            if (from != to) {
+                int weight = 1 + random.nextInt(20);
+                heapBuilder.addEdge(from, to, weight);
+                offHeapBuilder.addEdge(from, to, weight);
+            }
+        }
+        CsrGraph expected = heapBuilder.build();
+
+        try (OffHeapCsrGraph graph = offHeapBuilder.build()) {
+            // act
+            MstResult prim = new PrimSolver(1, n).solve(expected, 0);
+            MstResult offHeapPrim = new OffHeapPrim().run(graph, 0);
+            MstResult pairing = new OffHeapPrim(QueueType.PAIRING).run(graph, 0);
+            Graph view = new Graph(graph.asSparseGraph());
+            new Kruskal(view).run(0);
+
+            // assert
+            assertEquals(expected.getEdgeCount(), graph.getEdgeCount());
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected.edgesBegin(v), graph.edgesBegin(v));
+                assertEquals(expected.edgesEnd(v), graph.edgesEnd(v));
+            }
+            assertArrayEquals(prim.toMatrix(), offHeapPrim.toMatrix());
+            assertArrayEquals(prim.toMatrix(), pairing.toMatrix());
+            assertEquals(prim.getTotalWeight(), view.getMstResult().getTotalWeight());
+        }
+    }
+
+    @Test
+    void closedGraphIsNotReadable() {
+        // arrange
+        OffHeapCsrGraph graph = OffHeapCsrGraph.builder(2).addEdge(0, 1, 5).build();
+
+        // act
+        graph.close();
+
+        // assert
+        assertThrows(IllegalStateException.class, () -> graph.getWeight(0));
+    }
+}
@@ -0,0 +1,262 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Граф в формате CSR, массивы которого лежат вне кучи Java, в памяти {@link Arena}. <br>
+ * Номера рёбер - long, поэтому количество рёбер не ограничено размером массива Java (2^31), а сборщик мусора
+ * не просматривает и не копирует данные графа. Смещения хранятся как long, соседи и веса - как int.
+ * Вершины по-прежнему нумеруются int, как и во всех алгоритмах проекта. <br>
+ * Память выделяется в общей (shared) арене, поэтому граф могут одновременно читать несколько потоков,
+ * и освобождается сразу при {@link #close()}, не дожидаясь сборки мусора. После закрытия любое обращение
+ * к графу завершается IllegalStateException. Память арены учитывается в лимите -XX:MaxDirectMemorySize
+ * (по умолчанию равном -Xmx), поэтому для больших графов лимит нужно задать явно. <br>
+ * Граф, у которого меньше 2^31 элементов списков смежности, доступен и как {@link SparseGraph}
+ * (см. {@link #asSparseGraph()}), так что с ним работают все алгоритмы проекта, а для графов больше
+ * предназначен {@link OffHeapPrim}.
+ */
+public final class OffHeapCsrGraph implements AutoCloseable {
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG;
+
+    private final Arena arena;
+    private final int vertexCount;
+    private final MemorySegment offsets; // V + 1 смещений long
+    private final MemorySegment targets; // 2E соседей int
+    private final MemorySegment weights; // 2E весов int
+
+    private OffHeapCsrGraph(Arena arena, int vertexCount, MemorySegment offsets, MemorySegment targets,
+                            MemorySegment weights) {
+        this.arena = arena;
+        this.vertexCount = vertexCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public static Builder builder(int vertexCount) {
+        return new Builder(vertexCount);
+    }
+
+    /**
+     * Читает граф из файла в формате списка рёбер (см. {@link EdgeListReader}) сразу в память вне кучи.
+     * @throws IllegalArgumentException если файл некорректен
+     */
+    public static OffHeapCsrGraph readEdgeList(Path path) throws IOException {
+        try (EdgeListReader reader = new EdgeListReader(path)) {
+            Builder builder = builder(reader.getVertexCount());
+            try {
+                reader.forEachEdge(builder::addEdge);
+            } catch (IOException | RuntimeException e) {
+                builder.discard();
+                throw e;
+            }
+            return builder.build();
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return количество неориентированных рёбер
+     */
+    public long getEdgeCount() {
+        return targets.byteSize() / Integer.BYTES / 2;
+    }
+
+    public long edgesBegin(int vertex) {
+        return offsets.getAtIndex(LONG, vertex);
+    }
+
+    public long edgesEnd(int vertex) {
+        return offsets.getAtIndex(LONG, vertex + 1L);
+    }
+
+    public int getTarget(long edge) {
+        return targets.getAtIndex(INT, edge);
+    }
+
+    public int getWeight(long edge) {
+        return weights.getAtIndex(INT, edge);
+    }
+
+    /**
+     * @return наибольший вес ребра, 0 для графа без рёбер
+     */
+    public int maxWeight() {
+        int max = 0;
+        long slots = 2 * getEdgeCount();
+        for (long e = 0; e < slots; e++) {
+            max = Math.max(max, weights.getAtIndex(INT, e));
+        }
+        return max;
+    }
+
+    /**
+     * Представление графа с номерами рёбер int. Данные не копируются.
+     * @throws IllegalArgumentException если элементов списков смежности 2^31 или больше
+     */
+    public SparseGraph asSparseGraph() {
+        if (2 * getEdgeCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph with %d edges doesn't fit int edge indices"
+                    .formatted(getEdgeCount()));
+        }
+        return new SparseGraph() {
+            @Override
+            public int getVertexCount() {
+                return vertexCount;
+            }
+
+            @Override
+            public int getEdgeCount() {
+                return (int) OffHeapCsrGraph.this.getEdgeCount();
+            }
+
+            @Override
+            public int edgesBegin(int vertex) {
+                return (int) OffHeapCsrGraph.this.edgesBegin(vertex);
+            }
+
+            @Override
+            public int edgesEnd(int vertex) {
+                return (int) OffHeapCsrGraph.this.edgesEnd(vertex);
+            }
+
+            @Override
+            public int getTarget(int edge) {
+                return OffHeapCsrGraph.this.getTarget(edge);
+            }
+
+            @Override
+            public int getWeight(int edge) {
+                return OffHeapCsrGraph.this.getWeight(edge);
+            }
+        };
+    }
+
+    /**
+     * Освобождает память графа.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Построитель графа: рёбра накапливаются вне кучи блоками фиксированного размера, без копирования
+     * при росте, и раскладываются по спискам смежности в {@link #build()}. Построитель используется
+     * одним потоком. Если граф так и не построен, память нужно освободить вызовом {@link #discard()}.
+     */
+    public static final class Builder {
+        private static final int EDGES_PER_CHUNK = 1 << 20;
+        private static final long EDGE_BYTES = 3L * Integer.BYTES; // from, to, вес
+
+        private final int vertexCount;
+        private final Arena staging = Arena.ofConfined();
+        private final List<MemorySegment> chunks = new ArrayList<>();
+        private long size;
+
+        private Builder(int vertexCount) {
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            }
+            this.vertexCount = vertexCount;
+        }
+
+        /**
+         * Добавляет неориентированное ребро между вершинами с индексами from и to.
+         * @throws IllegalArgumentException если индекс вне диапазона или ребро является петлёй
+         */
+        public Builder addEdge(int from, int to, int weight) {
+            if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount) {
+                throw new IllegalArgumentException("Edge %d - %d is out of range [0, %d)"
+                        .formatted(from, to, vertexCount));
+            }
+            if (from == to) {
+                throw new IllegalArgumentException("Loops are unacceptable: vertex " + from);
+            }
+            int position = (int) (size % EDGES_PER_CHUNK);
+            if (position == 0) {
+                chunks.add(staging.allocate(EDGES_PER_CHUNK * EDGE_BYTES, Integer.BYTES));
+            }
+            MemorySegment chunk = chunks.get(chunks.size() - 1);
+            chunk.setAtIndex(INT, 3L * position, from);
+            chunk.setAtIndex(INT, 3L * position + 1, to);
+            chunk.setAtIndex(INT, 3L * position + 2, weight);
+            size++;
+            return this;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Строит граф и освобождает память накопленных рёбер. После вызова построитель использовать нельзя.
+         */
+        public OffHeapCsrGraph build() {
+            Arena arena = Arena.ofShared();
+            try {
+                MemorySegment offsets = arena.allocate((vertexCount + 1L) * Long.BYTES, Long.BYTES);
+                MemorySegment targets = arena.allocate(2 * size * Integer.BYTES, Integer.BYTES);
+                MemorySegment weights = arena.allocate(2 * size * Integer.BYTES, Integer.BYTES);
+                offsets.fill((byte) 0);
+                for (long i = 0; i < size; i++) {
+                    increment(offsets, edgeField(i, 0) + 1L);
+                    increment(offsets, edgeField(i, 1) + 1L);
+                }
+                for (int v = 0; v < vertexCount; v++) {
+                    offsets.setAtIndex(LONG, v + 1L, offsets.getAtIndex(LONG, v + 1L) + offsets.getAtIndex(LONG, v));
+                }
+                // следующая свободная позиция у каждой вершины
+                MemorySegment next = staging.allocate((long) vertexCount * Long.BYTES, Long.BYTES);
+                MemorySegment.copy(offsets, 0, next, 0, next.byteSize());
+                for (long i = 0; i < size; i++) {
+                    int from = edgeField(i, 0);
+                    int to = edgeField(i, 1);
+                    int weight = edgeField(i, 2);
+                    long position = next.getAtIndex(LONG, from);
+                    next.setAtIndex(LONG, from, position + 1);
+                    targets.setAtIndex(INT, position, to);
+                    weights.setAtIndex(INT, position, weight);
+                    position = next.getAtIndex(LONG, to);
+                    next.setAtIndex(LONG, to, position + 1);
+                    targets.setAtIndex(INT, position, from);
+                    weights.setAtIndex(INT, position, weight);
+                }
+                return new OffHeapCsrGraph(arena, vertexCount, offsets, targets, weights);
+            } catch (RuntimeException e) {
+                arena.close();
+                throw e;
+            } finally {
+                discard();
+            }
+        }
+
+        /**
+         * Освобождает память накопленных рёбер без построения графа.
+         */
+        public void discard() {
+            if (staging.scope().isAlive()) {
+                staging.close();
+            }
+        }
+
+        private int edgeField(long edge, int field) {
+            MemorySegment chunk = chunks.get((int) (edge / EDGES_PER_CHUNK));
+            return chunk.getAtIndex(INT, 3L * (edge % EDGES_PER_CHUNK) + field);
+        }
+
+        private static void increment(MemorySegment segment, long index) {
+            segment.setAtIndex(LONG, index, segment.getAtIndex(LONG, index) + 1);
+        }
+    }
+}
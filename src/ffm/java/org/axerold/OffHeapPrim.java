@@ -0,0 +1,64 @@
+package org.axerold;
+
+import java.util.Objects;
+
+/**
+ * Алгоритм Прима для графов вне кучи ({@link OffHeapCsrGraph}) с номерами рёбер long. <br>
+ * Цикл тот же, что в {@link PrimWorkspace}, и при равных весах дерево совпадает с результатом {@link Prim}
+ * для двоичной кучи и pairing heap. В куче Java выделяются только очередь с приоритетом и массивы
+ * результата - O(V), а рёбра (а их может быть больше 2^31) читаются прямо из памяти графа.
+ */
+public final class OffHeapPrim {
+    private static final int INFINITY = Integer.MAX_VALUE; // расстояние до MST у ещё не достигнутых вершин
+
+    private final QueueType queueType;
+
+    /**
+     * Алгоритм с двоичной кучей.
+     */
+    public OffHeapPrim() {
+        this(QueueType.BINARY);
+    }
+
+    public OffHeapPrim(QueueType queueType) {
+        this.queueType = queueType;
+    }
+
+    /**
+     * Строит MST (или лес) графа.
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    public MstResult run(OffHeapCsrGraph graph, int startVertex) {
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+        VertexQueue queue = queueType.create(n, queueType == QueueType.BUCKET ? graph.maxWeight() : 0);
+        boolean[] inTree = new boolean[n];
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+
+        for (int v = 0; v < n; v++) {
+            parent[v] = -1;
+            queue.add(v, v == startVertex ? 0 : INFINITY);
+        }
+        long relaxed = 0;
+        long decreases = 0;
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            inTree[vertex] = true;
+            parentWeight[vertex] = queue.getKey(vertex);
+            long end = graph.edgesEnd(vertex);
+            relaxed += end - graph.edgesBegin(vertex);
+            for (long e = graph.edgesBegin(vertex); e < end; e++) {
+                int adjacent = graph.getTarget(e);
+                int weight = graph.getWeight(e);
+                if (!inTree[adjacent] && weight < queue.getKey(adjacent)) {
+                    queue.decreaseKey(adjacent, weight);
+                    parent[adjacent] = vertex;
+                    decreases++;
+                }
+            }
+        }
+        MstMetrics.recordEngine(n, decreases, relaxed, n);
+        return new MstResult(parent, parentWeight);
+    }
+}
@@ -0,0 +1,80 @@
+package org.axerold;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Пропускная способность {@link DynamicMst} на разреженном графе. <br>
+ * Каждая операция изменяет случайное ребро графа и тут же возвращает его в исходное состояние, поэтому граф
+ * от итерации к итерации не меняется. Для сравнения стоит держать в уме время полного пересчёта
+ * из {@link PrimRelaxationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicMstBenchmark {
+    private static final int DEGREE = 8; // средняя степень вершины
+
+    @Param({"10000", "100000"})
+    private int vertices;
+
+    private DynamicMst dynamicMst;
+    private int[] from; // рёбра графа, с которыми работают операции
+    private int[] to;
+    private int[] weights;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsrGraph csrGraph = GraphGenerator.sparse(vertices, DEGREE, GraphGenerator.WeightDistribution.UNIFORM, 42);
+        Graph graph = Main.modifyGraph(new Graph(csrGraph), 0, Prim::new);
+        dynamicMst = new DynamicMst(graph);
+        EdgeList edges = EdgeList.of(csrGraph);
+        from = new int[edges.size()];
+        to = new int[edges.size()];
+        weights = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            from[e] = edges.getFirst(e);
+            to[e] = edges.getSecond(e);
+            weights[e] = edges.getWeight(e);
+        }
+        random = new Random(7);
+    }
+
+    /**
+     * Удаление ребра и повторная вставка: для рёбер дерева это поиск замены и вставка с вытеснением.
+     */
+    @Benchmark
+    public long deleteAndInsert() {
+        int e = random.nextInt(from.length);
+        dynamicMst.deleteEdge(from[e], to[e]);
+        dynamicMst.insertEdge(from[e], to[e], weights[e]);
+        return dynamicMst.getTotalWeight();
+    }
+
+    /**
+     * Увеличение веса ребра и возврат к исходному весу.
+     */
+    @Benchmark
+    public long increaseAndRestore() {
+        int e = random.nextInt(from.length);
+        dynamicMst.increaseWeight(from[e], to[e], weights[e] + 1000);
+        dynamicMst.decreaseWeight(from[e], to[e], weights[e]);
+        return dynamicMst.getTotalWeight();
+    }
+}
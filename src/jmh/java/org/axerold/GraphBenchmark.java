@@ -0,0 +1,67 @@
+package org.axerold;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарки основного конвейера: построение графа по матрице, проверка связности, алгоритм Прима
+ * и получение матрицы весов MST. Входные данные параметризованы числом вершин, плотностью и распределением весов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+    @Param({"1000", "4000"})
+    private int vertices;
+
+    @Param({"0.01", "0.1", "0.5"})
+    private double density;
+
+    @Param({"UNIFORM", "SMALL", "SKEWED"})
+    private GraphGenerator.WeightDistribution distribution;
+
+    private int[][] matrix;
+    private Graph graph; // граф с уже построенным MST
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = GraphGenerator.matrix(vertices, density, distribution, 42);
+        graph = new Graph(matrix);
+        new Prim(graph).run(0);
+    }
+
+    @Benchmark
+    public Graph construction() {
+        return new Graph(matrix);
+    }
+
+    @Benchmark
+    public boolean isConnected() {
+        return graph.isConnected();
+    }
+
+    @Benchmark
+    public Graph prim() {
+        new Prim(graph).run(0);
+        return graph;
+    }
+
+    @Benchmark
+    public int[][] retrieveModifiedWeightMatrix() {
+        return graph.retrieveModifiedWeightMatrix();
+    }
+}
@@ -0,0 +1,71 @@
+package org.axerold;
+
+import java.util.Random;
+
+/**
+ * Генератор входных данных для бенчмарков: симметричные матрицы весов заданного размера,
+ * плотности и распределения весов. Граф всегда связен - в него добавляется остовный путь.
+ */
+public final class GraphGenerator {
+    private GraphGenerator() {}
+
+    /**
+     * Распределения весов рёбер.
+     */
+    public enum WeightDistribution {
+        UNIFORM, // равномерно на [1, 1_000_000], почти все веса различны
+        SMALL, // равномерно на [1, 16], очень много равных весов
+        SKEWED; // степенное распределение: много лёгких рёбер и редкие тяжёлые
+
+        int next(Random random) {
+            return switch (this) {
+                case UNIFORM -> 1 + random.nextInt(1_000_000);
+                case SMALL -> 1 + random.nextInt(16);
+                case SKEWED -> (int) Math.min(1_000_000, Math.ceil(1 / Math.pow(1 - random.nextDouble(), 1.5)));
+            };
+        }
+    }
+
+    /**
+     * @param vertices количество вершин
+     * @param density доля присутствующих рёбер от V(V-1)/2
+     */
+    public static int[][] matrix(int vertices, double density, WeightDistribution distribution, long seed) {
+        Random random = new Random(seed);
+        int[][] matrix = new int[vertices][vertices];
+        for (int i = 1; i < vertices; i++) {
+            int weight = distribution.next(random);
+            matrix[i][i - 1] = weight;
+            matrix[i - 1][i] = weight;
+        }
+        for (int i = 0; i < vertices; i++) {
+            for (int j = 0; j < i - 1; j++) {
+                if (random.nextDouble() < density) {
+                    int weight = distribution.next(random);
+                    matrix[i][j] = weight;
+                    matrix[j][i] = weight;
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Разреженный граф с заданной средней степенью вершины, сразу в формате CSR, без матрицы V×V.
+     */
+    public static CsrGraph sparse(int vertices, int degree, WeightDistribution distribution, long seed) {
+        Random random = new Random(seed);
+        CsrGraph.Builder builder = CsrGraph.builder(vertices);
+        for (int i = 1; i < vertices; i++) {
+            builder.addEdge(i - 1, i, distribution.next(random));
+        }
+        for (long k = 0; k < (long) vertices * (degree - 2) / 2; k++) {
+            int from = random.nextInt(vertices);
+            int to = random.nextInt(vertices);
+            if (from != to) {
+                builder.addEdge(from, to, distribution.next(random));
+            }
+        }
+        return builder.build();
+    }
+}
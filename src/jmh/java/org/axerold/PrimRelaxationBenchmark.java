@@ -0,0 +1,48 @@
+package org.axerold;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Регрессионный бенчмарк для цикла релаксации алгоритма Прима. <br>
+ * Графы имеют фиксированную среднюю степень вершины и растущее число вершин, поэтому время одного запуска,
+ * делённое на 2E, - это стоимость рассмотрения одного ребра. Пока проверка "вершина ещё в очереди" была
+ * линейным поиском по списку, эта стоимость росла вместе с размером очереди; теперь она должна оставаться
+ * примерно постоянной (с поправкой на логарифм кучи).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimRelaxationBenchmark {
+    private static final int DEGREE = 8; // средняя степень вершины
+
+    @Param({"10000", "100000", "1000000"})
+    private int vertices;
+
+    private Graph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = new Graph(GraphGenerator.sparse(vertices, DEGREE, GraphGenerator.WeightDistribution.UNIFORM, 42));
+    }
+
+    @Benchmark
+    public Graph prim() {
+        new Prim(graph).run(0);
+        return graph;
+    }
+}
@@ -0,0 +1,69 @@
+package org.axerold;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнение очередей с приоритетом в алгоритме Прима при разных диапазонах весов. <br>
+ * Очередь на корзинах выигрывает, пока корзин немного и битовая маска помещается в кэш; при весах до 2^20
+ * поиск следующей непустой корзины становится дорогим, и двоичная куча снова впереди.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueueBenchmark {
+    private static final int VERTICES = 200_000;
+    private static final int DEGREE = 8; // средняя степень вершины
+
+    @Param({"BINARY", "PAIRING", "BUCKET"})
+    private QueueType queue;
+
+    @Param({"16", "4096", "1048576"})
+    private int maxWeight;
+
+    private CsrGraph graph;
+    private PrimWorkspace workspace;
+    private int[] parent;
+    private int[] parentWeight;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        CsrGraph.Builder builder = CsrGraph.builder(VERTICES);
+        for (int i = 1; i < VERTICES; i++) {
+            builder.addEdge(i - 1, i, 1 + random.nextInt(maxWeight));
+        }
+        for (long k = 0; k < (long) VERTICES * (DEGREE - 2) / 2; k++) {
+            int from = random.nextInt(VERTICES);
+            int to = random.nextInt(VERTICES);
+            if (from != to) {
+                builder.addEdge(from, to, 1 + random.nextInt(maxWeight));
+            }
+        }
+        graph = builder.build();
+        workspace = new PrimWorkspace(VERTICES, queue, QueueType.maxWeight(graph));
+        parent = new int[VERTICES];
+        parentWeight = new int[VERTICES];
+    }
+
+    @Benchmark
+    public int[] prim() {
+        workspace.run(graph, 0, parent, parentWeight);
+        return parentWeight;
+    }
+}
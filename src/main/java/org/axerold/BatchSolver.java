@@ -0,0 +1,208 @@
+package org.axerold;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Пакетная обработка множества небольших матриц весов. <br>
+ * Матрицы решаются задачами в ForkJoinPool: простаивающие потоки забирают задачи из очередей занятых
+ * (work stealing), так что матрицы разного размера распределяются по ядрам без ручной балансировки.
+ * Одна задача - это несколько подряд идущих матриц: передача задачи между потоками стоит дороже, чем
+ * решение матрицы из пары десятков вершин.
+ * Объекты Graph, Prim и куча не создаются: матрица проверяется последовательно
+ * ({@link MatrixScanner#validate(int[][])}), и дерево строится Примом по матрице за O(V²)
+ * ({@link DensePrim}), что для матрицы, которую всё равно нужно прочитать целиком, оптимально. Рабочие массивы
+ * хранятся в ThreadLocal и живут, пока жив поток пула, поэтому память выделяется только под результат. <br>
+ * Результаты возвращаются в порядке готовности задач вместе с индексом матрицы во входных данных.
+ * Одновременно в работе находится ограниченное число матриц, поэтому вход может быть ленивым потоком
+ * любой длины.
+ */
+public final class BatchSolver implements AutoCloseable {
+    private static final int CHUNK = 32; // матриц в одной задаче
+    private static final int CHUNKS_PER_THREAD = 8; // задач в работе на один поток пула
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ForkJoinPool pool;
+    private final int window; // наибольшее количество задач, отданных пулу, но ещё не полученных
+
+    /**
+     * Результат для одной матрицы.
+     * @param index номер матрицы во входных данных, с нуля
+     * @param mst дерево (или лес), либо null, если матрица не задаёт корректный граф
+     */
+    public record Result(int index, MstResult mst) {}
+
+    /**
+     * Готовая задача: результаты её матриц, либо неожиданное исключение или ошибка (например,
+     * OutOfMemoryError), которые нужно передать вызывающему.
+     */
+    private record Completion(Result[] results, Throwable failure) {}
+
+    /**
+     * Рабочие массивы одного потока пула, растут до размера наибольшей обработанной матрицы.
+     */
+    private static final class Scratch {
+        private int[] key = new int[0];
+        private boolean[] inTree = new boolean[0];
+
+        void ensureCapacity(int n) {
+            if (key.length < n) {
+                key = new int[n];
+                inTree = new boolean[n];
+            }
+        }
+    }
+
+    /**
+     * Пул на все доступные ядра.
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism количество потоков пула
+     */
+    public BatchSolver(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        pool = new ForkJoinPool(parallelism);
+        window = parallelism * CHUNKS_PER_THREAD;
+    }
+
+    /**
+     * @see #solve(Stream, int)
+     */
+    public Stream<Result> solve(List<int[][]> matrices, int startVertex) {
+        return solve(matrices.stream(), startVertex);
+    }
+
+    /**
+     * Решает все матрицы. Матрицы отдаются пулу по мере чтения результатов, так что их обработка начинается
+     * с первым обращением к возвращённому потоку. Дерево совпадает с результатом {@link Prim} для той же
+     * стартовой вершины.
+     * @param startVertex стартовая вершина для всех матриц; некорректное для матрицы значение, например -1,
+     * означает случайную вершину
+     * @return результаты в порядке готовности; поток последовательный и читается один раз
+     */
+    public Stream<Result> solve(Stream<int[][]> matrices, int startVertex) {
+        Iterator<int[][]> source = matrices.iterator();
+        return StreamSupport.stream(new CompletionSpliterator(source, startVertex), false)
+                .onClose(matrices::close);
+    }
+
+    /**
+     * Решает одну матрицу в текущем потоке, используя его рабочие массивы.
+     */
+    static MstResult solveOne(int[][] matrix, int startVertex) {
+        try {
+            MatrixScanner.validate(matrix);
+        } catch (InvalidGraphException e) {
+            return null;
+        }
+        int n = matrix.length;
+        if (startVertex < 0 || startVertex >= n) {
+            startVertex = ThreadLocalRandom.current().nextInt(n);
+        }
+        Scratch scratch = SCRATCH.get();
+        scratch.ensureCapacity(n);
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        DensePrim.solve(matrix, startVertex, scratch.key, scratch.inTree, parent, parentWeight);
+        return new MstResult(parent, parentWeight);
+    }
+
+    /**
+     * Завершает потоки пула; уже отданные пулу матрицы дорешиваются.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Отдаёт пулу очередные матрицы, пока в работе меньше {@link #window} задач, и выдаёт результаты
+     * по мере готовности.
+     */
+    private final class CompletionSpliterator extends Spliterators.AbstractSpliterator<Result> {
+        private final Iterator<int[][]> source;
+        private final int startVertex;
+        private final BlockingQueue<Completion> completed = new LinkedBlockingQueue<>();
+        private int submitted; // количество отданных пулу матриц
+        private int running; // количество задач в работе
+        private Result[] current = new Result[0]; // результаты последней полученной задачи
+        private int position; // следующий невыданный результат в current
+
+        CompletionSpliterator(Iterator<int[][]> source, int startVertex) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.source = source;
+            this.startVertex = startVertex;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Result> action) {
+            while (running < window && source.hasNext()) {
+                submitChunk();
+            }
+            if (position == current.length) {
+                if (running == 0) {
+                    return false;
+                }
+                Completion completion;
+                try {
+                    completion = completed.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for batch results");
+                }
+                running--;
+                if (completion.failure() instanceof Error error) {
+                    throw error;
+                }
+                if (completion.failure() != null) {
+                    throw (RuntimeException) completion.failure();
+                }
+                current = completion.results();
+                position = 0;
+            }
+            action.accept(current[position++]);
+            return true;
+        }
+
+        private void submitChunk() {
+            int[][][] chunk = new int[CHUNK][][];
+            int size = 0;
+            while (size < CHUNK && source.hasNext()) {
+                chunk[size++] = source.next();
+            }
+            int first = submitted;
+            int count = size;
+            submitted += size;
+            running++;
+            pool.execute(() -> {
+                try {
+                    Result[] results = new Result[count];
+                    for (int k = 0; k < count; k++) {
+                        results[k] = new Result(first + k, solveOne(chunk[k], startVertex));
+                    }
+                    completed.add(new Completion(results, null));
+                } catch (Throwable e) {
+                    // без Completion вызывающий навсегда остался бы ждать в completed.take()
+                    completed.add(new Completion(null, e));
+                }
+            });
+        }
+    }
+}
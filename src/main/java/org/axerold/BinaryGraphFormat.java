@@ -0,0 +1,256 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Компактный бинарный формат графа для мгновенной загрузки больших графов. <br>
+ * Все числа - int в порядке байт little-endian: <br>
+ * заголовок: MAGIC, VERSION, V (количество вершин), M (длина списков смежности, 2E), v (стартовая вершина),
+ * зарезервированное поле; <br>
+ * offsets - V + 1 чисел; <br>
+ * targets - M чисел; <br>
+ * weights - M чисел. <br>
+ * Файл отображается в память через FileChannel.map, и алгоритм работает прямо с представлениями IntBuffer,
+ * без разбора текста и без построения объектов. Каждая секция ограничена 2 ГБ (ограничение FileChannel.map).
+ */
+@Slf4j
+public final class BinaryGraphFormat {
+    static final int MAGIC = 0x4D535447; // "MSTG"
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 6;
+    private static final int HEADER_BYTES = HEADER_INTS * Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryGraphFormat() {}
+
+    /**
+     * Отображает файл в память.
+     * @throws IllegalArgumentException если файл не является графом в этом формате или повреждён
+     */
+    public static MappedCsrGraph map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalArgumentException("File is too short for a graph header: " + path);
+            }
+            IntBuffer header = map(channel, 0, HEADER_INTS);
+            if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+                throw new IllegalArgumentException("Unknown binary graph format: " + path);
+            }
+            int vertexCount = header.get(2);
+            int halfEdgeCount = header.get(3);
+            int startVertex = header.get(4);
+            long expectedSize = HEADER_BYTES + ((long) vertexCount + 1 + 2L * halfEdgeCount) * Integer.BYTES;
+            if (vertexCount < 0 || halfEdgeCount < 0 || channel.size() != expectedSize) {
+                throw new IllegalArgumentException("Binary graph file is corrupted: " + path);
+            }
+            long position = HEADER_BYTES;
+            IntBuffer offsets = map(channel, position, vertexCount + 1);
+            position += (vertexCount + 1L) * Integer.BYTES;
+            IntBuffer targets = map(channel, position, halfEdgeCount);
+            position += (long) halfEdgeCount * Integer.BYTES;
+            IntBuffer weights = map(channel, position, halfEdgeCount);
+            validate(path, offsets, targets, weights);
+            return new MappedCsrGraph(offsets, targets, weights, startVertex); // отображение остаётся
+            // действительным и после закрытия канала
+        }
+    }
+
+    /**
+     * Проверяет за один проход, что offsets не убывают и начинаются с 0, а заканчиваются на M, что все targets
+     * лежат в [0, V) и что граф неориентированный: M чётно, петель и повторов нет, и у каждой записи u - v
+     * есть запись v - u с тем же весом. Без этой проверки повреждённый файл привёл бы к выходу за границы
+     * буфера или массивов алгоритма уже во время его работы, а несимметричный - к неверному дереву.
+     * Записи u - v с u &lt; v ждут своей пары в хэш-таблице, так что дополнительная память - O(E) в худшем
+     * случае и намного меньше, если соседи вершин близки по номерам.
+     * @throws IllegalArgumentException если файл повреждён
+     */
+    private static void validate(Path path, IntBuffer offsets, IntBuffer targets, IntBuffer weights) {
+        int vertexCount = offsets.limit() - 1;
+        if (offsets.get(0) != 0 || offsets.get(vertexCount) != targets.limit()) {
+            throw new IllegalArgumentException("Binary graph file is corrupted: offsets do not span %d targets in %s"
+                    .formatted(targets.limit(), path));
+        }
+        if (targets.limit() % 2 != 0) {
+            throw new IllegalArgumentException("Binary graph file is corrupted: odd number %d of targets in %s"
+                    .formatted(targets.limit(), path));
+        }
+        LongIntHashMap unmatched = new LongIntHashMap(); // пара u < v -> номер записи u - v без пары
+        for (int v = 0; v < vertexCount; v++) {
+            int end = offsets.get(v + 1);
+            if (end < offsets.get(v)) {
+                throw new IllegalArgumentException("Binary graph file is corrupted: offsets decrease at vertex %d in %s"
+                        .formatted(v, path));
+            }
+            for (int e = offsets.get(v); e < end; e++) {
+                int target = targets.get(e);
+                if (target < 0 || target >= vertexCount) {
+                    throw new IllegalArgumentException(
+                            "Binary graph file is corrupted: target %d of vertex %d is out of range in %s"
+                                    .formatted(target, v, path));
+                }
+                matchEntry(path, unmatched, weights, v, target, e);
+            }
+        }
+        if (unmatched.size() > 0) {
+            throw new IllegalArgumentException("Binary graph file is corrupted: %d entries have no mirror in %s"
+                    .formatted(unmatched.size(), path));
+        }
+    }
+
+    /**
+     * Ставит запись from - to в пару обратной записи to - from с тем же весом, либо запоминает её до встречи
+     * с обратной.
+     * @throws IllegalArgumentException если запись - петля или повтор, либо у обратной записи другой вес
+     */
+    private static void matchEntry(Path path, LongIntHashMap unmatched, IntBuffer weights, int from, int to,
+                                   int entry) {
+        if (from == to) {
+            throw new IllegalArgumentException("Binary graph file is corrupted: loop at vertex %d in %s"
+                    .formatted(from, path));
+        }
+        long pair = (long) Math.min(from, to) << 32 | Math.max(from, to);
+        int mirror = unmatched.get(pair);
+        if (from < to) {
+            if (mirror != LongIntHashMap.ABSENT) {
+                throw new IllegalArgumentException("Binary graph file is corrupted: repeated edge %d - %d in %s"
+                        .formatted(from, to, path));
+            }
+            unmatched.put(pair, entry);
+        } else if (mirror == LongIntHashMap.ABSENT || weights.get(mirror) != weights.get(entry)) {
+            throw new IllegalArgumentException(
+                    "Binary graph file is corrupted: edge %d - %d has no mirror of weight %d in %s"
+                            .formatted(from, to, weights.get(entry), path));
+        } else {
+            unmatched.remove(pair);
+        }
+    }
+
+    private static IntBuffer map(FileChannel channel, long position, int ints) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, (long) ints * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    /**
+     * Записывает граф в бинарный формат.
+     */
+    public static void write(SparseGraph graph, int startVertex, Path path) throws IOException {
+        int n = graph.getVertexCount();
+        int halfEdgeCount = n == 0 ? 0 : graph.edgesEnd(n - 1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(halfEdgeCount).putInt(startVertex).putInt(0);
+            for (int v = 0; v < n; v++) {
+                putInt(channel, buffer, graph.edgesBegin(v));
+            }
+            putInt(channel, buffer, halfEdgeCount);
+            for (int e = 0; e < halfEdgeCount; e++) {
+                putInt(channel, buffer, graph.getTarget(e));
+            }
+            for (int e = 0; e < halfEdgeCount; e++) {
+                putInt(channel, buffer, graph.getWeight(e));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Конвертирует файл с матрицей весов (формат input.txt, см. {@link Main}) в бинарный формат.
+     * Матрица читается потоково, строка за строкой, и целиком в памяти не хранится: строка i матрицы
+     * и есть список смежности вершины i.
+     * @throws IllegalArgumentException если матрица не квадратная, не симметрическая или содержит петли
+     */
+    public static void convertMatrix(Path matrixPath, Path binaryPath) throws IOException {
+        int startVertex;
+        CsrGraph graph;
+        try (IntTokenizer tokenizer = IntTokenizer.open(matrixPath)) {
+            int n = tokenizer.nextInt();
+            startVertex = tokenizer.nextInt();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[Math.max(n, 16)];
+            int[] weights = new int[targets.length];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    int weight = tokenizer.nextInt();
+                    if (weight == 0) {
+                        continue;
+                    }
+                    if (i == j) {
+                        throw new InvalidGraphException("Loops are unacceptable: cell [%d][%d]".formatted(i, j), i, j);
+                    }
+                    if (size == targets.length) {
+                        targets = Arrays.copyOf(targets, size + (size >> 1));
+                        weights = Arrays.copyOf(weights, targets.length);
+                    }
+                    targets[size] = j;
+                    weights[size++] = weight;
+                }
+                offsets[i + 1] = size;
+            }
+            if (tokenizer.hasNext()) {
+                throw new IllegalArgumentException("Matrix has more than %d rows".formatted(n));
+            }
+            graph = new CsrGraph(offsets, Arrays.copyOf(targets, size), Arrays.copyOf(weights, size));
+        }
+        checkSymmetric(graph);
+        write(graph, startVertex, binaryPath);
+        log.info("Converted {} ({} vertices, {} edges) to {}", matrixPath, graph.getVertexCount(),
+                graph.getEdgeCount(), binaryPath);
+    }
+
+    /**
+     * Для каждого ребра i - j ищет бинарным поиском обратное ребро j - i с тем же весом.
+     * Списки смежности, построенные по строкам матрицы, упорядочены по возрастанию соседа.
+     */
+    private static void checkSymmetric(CsrGraph graph) {
+        for (int i = 0; i < graph.getVertexCount(); i++) {
+            for (int e = graph.edgesBegin(i); e < graph.edgesEnd(i); e++) {
+                int j = graph.getTarget(e);
+                int low = graph.edgesBegin(j);
+                int high = graph.edgesEnd(j) - 1;
+                int found = -1;
+                while (low <= high && found < 0) {
+                    int middle = (low + high) >>> 1;
+                    int target = graph.getTarget(middle);
+                    if (target < i) {
+                        low = middle + 1;
+                    } else if (target > i) {
+                        high = middle - 1;
+                    } else {
+                        found = middle;
+                    }
+                }
+                if (found < 0 || graph.getWeight(found) != graph.getWeight(e)) {
+                    throw new InvalidGraphException("Oriented graph is unacceptable: cell [%d][%d]".formatted(i, j),
+                            i, j);
+                }
+            }
+        }
+    }
+}
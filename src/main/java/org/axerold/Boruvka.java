@@ -0,0 +1,140 @@
+package org.axerold;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Параллельный алгоритм Борувки для построения минимального остовного дерева (леса). <br>
+ * Каждый раунд состоит из двух шагов, выполняемых параллельно в общем ForkJoinPool:
+ * <p>
+ * 1. Для каждой компоненты находится самое лёгкое выходящее из неё ребро.
+ * Рёбра сравниваются по паре (вес, номер ребра), упакованной в long, так что минимум выбирается
+ * атомарным compareAndSet без блокировок.
+ * <p>
+ * 2. Компоненты, соединённые выбранными рёбрами, объединяются в неблокирующей системе непересекающихся
+ * множеств (union-find); ребро попадает в дерево, если объединение действительно произошло.
+ * <p>
+ * Раунды повторяются, пока объединять нечего. Количество компонент за раунд уменьшается как минимум вдвое,
+ * поэтому раундов не больше log V. Поскольку порядок (вес, номер ребра) строгий, результат не зависит ни от
+ * числа потоков, ни от порядка их выполнения.
+ */
+@Slf4j
+public class Boruvka implements MstEngine {
+    private static final long NONE = Long.MAX_VALUE; // у компоненты ещё нет выходящего ребра
+
+    private final Graph graph;
+
+    public Boruvka(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Без заданной стартовой вершины выбирается случайная вершина графа. Само дерево от неё не зависит,
+     * от неё зависит только то, какая вершина станет корнем в массиве предков.
+     */
+    @Override
+    public void run() {
+        int vertexIndex = (int) (Math.random() * graph.getVertexCount());
+        run(vertexIndex);
+    }
+
+    /**
+     * @param startVertex корень дерева в полученном массиве предков
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    @Override
+    public void run(int startVertex) {
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+        EdgeList edges = EdgeList.of(graph.getCsrGraph());
+
+        AtomicIntegerArray components = new AtomicIntegerArray(n); // лес union-find, components[v] - родитель v
+        for (int v = 0; v < n; v++) {
+            components.set(v, v);
+        }
+        AtomicLongArray cheapest = new AtomicLongArray(n); // самое лёгкое выходящее ребро для корня компоненты
+        boolean[] inForest = new boolean[edges.size()];
+
+        int[] active = IntStream.range(0, edges.size()).toArray(); // рёбра между разными компонентами
+        int rounds = 0;
+        long relaxed = 0; // просмотры рёбер для MstMetrics
+        while (active.length > 0) {
+            rounds++;
+            relaxed += active.length;
+            IntStream.range(0, n).parallel().forEach(v -> cheapest.set(v, NONE));
+            int[] current = active;
+            IntStream.range(0, current.length).parallel().forEach(k -> {
+                int edge = current[k];
+                long key = ((long) edges.getWeight(edge) << 32) | edge;
+                minimize(cheapest, find(components, edges.getFirst(edge)), key);
+                minimize(cheapest, find(components, edges.getSecond(edge)), key);
+            });
+            IntStream.range(0, n).parallel()
+                    .filter(root -> cheapest.get(root) != NONE)
+                    .forEach(root -> {
+                        int edge = (int) cheapest.get(root);
+                        if (union(components, edges.getFirst(edge), edges.getSecond(edge))) {
+                            inForest[edge] = true; // объединение по ребру проходит ровно один раз
+                        }
+                    });
+            active = IntStream.of(current).parallel()
+                    .filter(edge -> find(components, edges.getFirst(edge)) != find(components, edges.getSecond(edge)))
+                    .toArray();
+        }
+        log.debug("Boruvka finished in {} rounds", rounds);
+        MstMetrics.recordEngine(0, 0, relaxed, 0);
+
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        edges.orientForest(inForest, startVertex, parent, parentWeight);
+        graph.setSpanningForest(parent, parentWeight);
+    }
+
+    private static void minimize(AtomicLongArray cheapest, int index, long key) {
+        long current = cheapest.get(index);
+        while (key < current && !cheapest.compareAndSet(index, current, key)) {
+            current = cheapest.get(index);
+        }
+    }
+
+    /**
+     * Поиск корня с сокращением пути вдвое (path halving). Сокращение делается через compareAndSet, поэтому
+     * безопасно при одновременных объединениях: ссылка всегда заменяется на предка той же компоненты.
+     */
+    private static int find(AtomicIntegerArray components, int vertex) {
+        int parent = components.get(vertex);
+        while (parent != vertex) {
+            int grandParent = components.get(parent);
+            if (grandParent != parent) {
+                components.compareAndSet(vertex, parent, grandParent);
+            }
+            vertex = parent;
+            parent = grandParent;
+        }
+        return vertex;
+    }
+
+    /**
+     * Неблокирующее объединение: корень с большим индексом подвешивается под корень с меньшим, так что
+     * циклов не возникает. Если между find и compareAndSet корень успел измениться, попытка повторяется.
+     * @return true, если компоненты были различны и объединены этим вызовом
+     */
+    private static boolean union(AtomicIntegerArray components, int first, int second) {
+        while (true) {
+            int firstRoot = find(components, first);
+            int secondRoot = find(components, second);
+            if (firstRoot == secondRoot) {
+                return false;
+            }
+            int child = Math.max(firstRoot, secondRoot);
+            int root = Math.min(firstRoot, secondRoot);
+            if (components.compareAndSet(child, child, root)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Очередь с приоритетом на корзинах для целых ключей из [0, maxKey] и бесконечного ключа
+ * {@link Integer#MAX_VALUE}. <br>
+ * Вершина лежит в двусвязном списке корзины своего ключа, поэтому добавление и уменьшение ключа выполняются
+ * за O(1). Непустые корзины отмечены в битовой маске, и минимум находится просмотром слов маски: при
+ * maxKey в несколько тысяч это несколько десятков слов. Ключи в алгоритме Прима - веса рёбер, а не
+ * накопленные расстояния, и не растут монотонно, поэтому после уменьшения ключа поиск минимума
+ * снова начинается с меньшей корзины. <br>
+ * При равных ключах порядок извлечения не определён (в отличие от {@link CustomPriorityQueue}), поэтому
+ * при равных весах дерево может отличаться, но его вес минимален.
+ */
+public final class BucketQueue implements VertexQueue {
+    private static final int NONE = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final int maxKey;
+    private final int[] head; // head[b] - первая вершина корзины b, последняя корзина - для бесконечного ключа
+    private final long[] nonEmpty; // бит b - корзина b непуста
+    private final int[] keys;
+    private final int[] next; // следующая вершина в корзине
+    private final int[] previous; // предыдущая вершина в корзине
+    private final boolean[] queued;
+    private int lowest; // корзины с меньшими номерами пусты
+    private int size;
+
+    /**
+     * @param capacity количество вершин графа
+     * @param maxKey наибольший конечный ключ
+     */
+    public BucketQueue(int capacity, int maxKey) {
+        if (maxKey < 0 || maxKey >= INFINITY - 1) {
+            throw new IllegalArgumentException("Incorrect maximum key: " + maxKey);
+        }
+        this.maxKey = maxKey;
+        int buckets = maxKey + 2;
+        head = new int[buckets];
+        nonEmpty = new long[(buckets + Long.SIZE - 1) / Long.SIZE];
+        keys = new int[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        queued = new boolean[capacity];
+        Arrays.fill(head, NONE);
+        lowest = buckets;
+    }
+
+    @Override
+    public void add(int vertex, int key) {
+        if (queued[vertex]) {
+            throw new IllegalArgumentException("Vertex %d is already queued".formatted(vertex));
+        }
+        keys[vertex] = key;
+        queued[vertex] = true;
+        insert(vertex, bucket(key));
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int word = lowest >>> 6;
+        long bits = nonEmpty[word] & (-1L << (lowest & 63));
+        while (bits == 0) {
+            bits = nonEmpty[++word];
+        }
+        lowest = (word << 6) + Long.numberOfTrailingZeros(bits);
+        int vertex = head[lowest];
+        remove(vertex, lowest);
+        queued[vertex] = false;
+        size--;
+        return vertex;
+    }
+
+    @Override
+    public void decreaseKey(int vertex, int key) {
+        if (key >= keys[vertex]) {
+            return;
+        }
+        remove(vertex, bucket(keys[vertex]));
+        keys[vertex] = key;
+        insert(vertex, bucket(key));
+    }
+
+    @Override
+    public boolean contains(int vertex) {
+        return queued[vertex];
+    }
+
+    @Override
+    public int getKey(int vertex) {
+        return keys[vertex];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int bucket(int key) {
+        if (key == INFINITY) {
+            return maxKey + 1;
+        }
+        if (key < 0 || key > maxKey) {
+            throw new IllegalArgumentException("Key %d is out of range [0, %d]".formatted(key, maxKey));
+        }
+        return key;
+    }
+
+    private void insert(int vertex, int bucket) {
+        int first = head[bucket];
+        next[vertex] = first;
+        previous[vertex] = NONE;
+        if (first != NONE) {
+            previous[first] = vertex;
+        }
+        head[bucket] = vertex;
+        nonEmpty[bucket >>> 6] |= 1L << bucket;
+        lowest = Math.min(lowest, bucket);
+    }
+
+    private void remove(int vertex, int bucket) {
+        if (previous[vertex] == NONE) {
+            head[bucket] = next[vertex];
+            if (next[vertex] == NONE) {
+                nonEmpty[bucket >>> 6] &= ~(1L << bucket);
+            }
+        } else {
+            next[previous[vertex]] = next[vertex];
+        }
+        if (next[vertex] != NONE) {
+            previous[next[vertex]] = previous[vertex];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемое представление графа в формате CSR (compressed sparse row).
+ * Все смежные с вершиной v рёбра лежат подряд в массивах targets и weights
+ * на отрезке [offsets[v], offsets[v + 1]). Каждое неориентированное ребро хранится дважды - по разу
+ * у каждого из концов.
+ * <p>
+ * В отличие от списков Vertex/Edge, здесь на ребро приходится всего два int в двух массивах,
+ * поэтому граф занимает в разы меньше памяти и обходится последовательно.
+ * Вершины индексируются с нуля (индекс = номер вершины минус единица).
+ */
+public final class CsrGraph implements SparseGraph {
+    private final int[] offsets; // offsets[v] - начало списка смежности вершины v, длина массива - V + 1
+    private final int[] targets; // второй конец ребра
+    private final int[] weights; // вес ребра
+
+    /**
+     * Массивы не копируются: вызывающая сторона передаёт их во владение графу.
+     */
+    CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Строит CSR по матрице весов. Ненулевой элемент matrix[i][j] считается ребром i - j.
+     * Матрица должна быть квадратной; проверка симметричности лежит на вызывающей стороне.
+     * Списки смежности получаются упорядоченными по возрастанию индекса соседа.
+     */
+    public static CsrGraph fromMatrix(int[][] matrix) {
+        int n = matrix.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int degree = 0;
+            for (int weight : matrix[i]) {
+                if (weight != 0) {
+                    degree++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + degree;
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int position = offsets[i];
+            int[] row = matrix[i];
+            for (int j = 0; j < n; j++) {
+                if (row[j] != 0) {
+                    targets[position] = j;
+                    weights[position++] = row[j];
+                }
+            }
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    public static Builder builder(int vertexCount) {
+        return new Builder(vertexCount);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length / 2;
+    }
+
+    @Override
+    public int getDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public int edgesBegin(int vertex) {
+        return offsets[vertex];
+    }
+
+    @Override
+    public int edgesEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Построитель CSR по потоку рёбер. Рёбра накапливаются в примитивных массивах,
+     * после чего раскладываются по спискам смежности сортировкой подсчётом за O(V + E).
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int vertexCount;
+        private int[] first = new int[INITIAL_CAPACITY];
+        private int[] second = new int[INITIAL_CAPACITY];
+        private int[] edgeWeights = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private Builder(int vertexCount) {
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            }
+            this.vertexCount = vertexCount;
+        }
+
+        /**
+         * Добавляет неориентированное ребро между вершинами с индексами from и to.
+         * @throws IllegalArgumentException если индекс вне диапазона или ребро является петлёй
+         */
+        public Builder addEdge(int from, int to, int weight) {
+            if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount) {
+                throw new IllegalArgumentException("Edge %d - %d is out of range [0, %d)"
+                        .formatted(from, to, vertexCount));
+            }
+            if (from == to) {
+                throw new IllegalArgumentException("Loops are unacceptable: vertex " + from);
+            }
+            if (size == first.length) {
+                int capacity = size + (size >> 1);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+                edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+            }
+            first[size] = from;
+            second[size] = to;
+            edgeWeights[size++] = weight;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public CsrGraph build() {
+            int[] offsets = new int[vertexCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[first[i] + 1]++;
+                offsets[second[i] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, vertexCount); // следующая свободная позиция у каждой вершины
+            int[] targets = new int[2 * size];
+            int[] weights = new int[2 * size];
+            for (int i = 0; i < size; i++) {
+                int position = next[first[i]]++;
+                targets[position] = second[i];
+                weights[position] = edgeWeights[i];
+                position = next[second[i]]++;
+                targets[position] = first[i];
+                weights[position] = edgeWeights[i];
+            }
+            return new CsrGraph(offsets, targets, weights);
+        }
+    }
+}
@@ -1,39 +1,137 @@
 package org.axerold;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 /**
- * Обёртка для списка, имитирующая PriorityQueue.
- * Поскольку в JDK по умолчанию нет реализации очереди, которая
- * может обновлять порядок в очереди при изменении элементов, то я решил сделать это сам.
+ * Индексированная двоичная куча (min-heap) для алгоритма Прима.
+ * Элементами кучи являются индексы вершин (номер вершины минус единица), а ключом - расстояние до MST.
+ * Поскольку в JDK нет очереди с приоритетом, которая умеет уменьшать ключ уже добавленного элемента,
+ * куча хранит для каждой вершины её позицию в массиве, что позволяет за O(log V) выполнять
+ * decreaseKey и poll, а за O(1) - contains.
+ * <p>
+ * При равных ключах первой извлекается вершина с меньшим индексом, поэтому результат работы
+ * алгоритма не зависит от порядка добавления вершин.
  */
-public class CustomPriorityQueue {
-    private final List<Vertex> queue; // здесь будут храниться все вершины
+public class CustomPriorityQueue implements VertexQueue {
+    private static final int ABSENT = -1; // позиция вершины, которой нет в куче
 
-    public CustomPriorityQueue() {
-        queue = new ArrayList<>();
+    private final int[] heap; // heap[i] - индекс вершины, стоящей на i-м месте в куче
+    private final int[] position; // position[v] - место вершины v в куче, либо ABSENT
+    private final int[] keys; // keys[v] - текущий ключ вершины v
+    private int size;
+
+    /**
+     * @param capacity количество вершин графа. Индексы вершин должны лежать в диапазоне [0, capacity).
+     */
+    public CustomPriorityQueue(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(position, ABSENT);
+    }
+
+    @Override
+    public void add(int vertex, int key) {
+        if (position[vertex] != ABSENT) {
+            throw new IllegalArgumentException("Vertex %d is already queued".formatted(vertex));
+        }
+        keys[vertex] = key;
+        heap[size] = vertex;
+        position[vertex] = size;
+        siftUp(size++);
     }
 
-    public void addAll(List<Vertex> vertices) {
-        queue.addAll(vertices);
-        updateOrder();
+    /**
+     * Извлекает вершину с наименьшим ключом.
+     * @return индекс извлечённой вершины
+     */
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int top = heap[0];
+        position[top] = ABSENT;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
     }
 
-    public Vertex remove() {
-        return queue.remove(0);
+    /**
+     * Уменьшает ключ вершины, которая ещё находится в очереди.
+     * Если новый ключ не меньше текущего, ничего не происходит.
+     */
+    @Override
+    public void decreaseKey(int vertex, int key) {
+        if (key < keys[vertex]) {
+            keys[vertex] = key;
+            siftUp(position[vertex]);
+        }
     }
 
-    public boolean contains(Vertex vertex) {
-        return queue.contains(vertex);
+    @Override
+    public boolean contains(int vertex) {
+        return position[vertex] != ABSENT;
     }
 
+    @Override
+    public int getKey(int vertex) {
+        return keys[vertex];
+    }
+
+    @Override
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int index) {
+        int vertex = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (!less(vertex, parent)) {
+                break;
+            }
+            heap[index] = parent;
+            position[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
     }
 
-    public void updateOrder() {
-        queue.sort(Comparator.comparing(Vertex::getDistance));
+    private void siftDown(int index) {
+        int vertex = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && less(heap[rightIndex], child)) {
+                childIndex = rightIndex;
+                child = heap[childIndex];
+            }
+            if (!less(child, vertex)) {
+                break;
+            }
+            heap[index] = child;
+            position[child] = index;
+            index = childIndex;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
     }
 }
@@ -0,0 +1,361 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Минимальный остовный лес при удалении рёбер: уровни Холма - де Лихтенберга - Торупа. <br>
+ * Каждому ребру присвоен уровень от 0 до log2(V), и уровни только растут. F_i - рёбра леса с уровнем
+ * не меньше i; деревья F_i содержат не больше V / 2^i вершин, а концы ребра вне леса уровня i связаны в F_i.
+ * Для каждого уровня F_i хранится в {@link EulerTourForest}: в нём отмечены рёбра ровно уровня i,
+ * а ключ вершины - наименьший ключ её рёбер вне леса уровня i. <br>
+ * При удалении ребра леса уровня l для i от l до 0 берётся меньшая из двух частей в F_i: её рёбра леса
+ * уровня i поднимаются на уровень i + 1, а её рёбра вне леса уровня i перебираются по возрастанию ключа.
+ * Ребро, оба конца которого в меньшей части, тоже поднимается; первое ребро, ведущее в другую часть, -
+ * самая лёгкая замена. Каждое ребро поднимается не больше log2(V) раз, поэтому удаление стоит
+ * амортизированно O(log² V). <br>
+ * Рёбра вне леса удаляются из куч лениво: ключ в куче уровня i устарел, если его ребро больше не лежит вне
+ * леса на уровне i, и такие ключи выбрасываются, когда оказываются наименьшими. <br>
+ * Ключ ребра задаёт вызывающий: ключи должны быть различны, а младшие 32 бита ключа - номер ребра.
+ */
+final class DecrementalMsf {
+    private static final int NONE = -1;
+    private static final byte ABSENT = 0;
+    private static final byte TREE = 1;
+    private static final byte NON_TREE = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    // если поднимается хотя бы 1 / BULK_RATIO рёбер дерева, дерево переносится на уровень выше целиком
+    private static final int BULK_RATIO = 16;
+
+    private final int vertexCount;
+    private final EulerTourForest[] forests; // F_i, создаётся при первом подъёме ребра на уровень i
+    private final long[][][] heaps; // heaps[i][v] - куча ключей рёбер вне леса уровня i > 0 у вершины v
+    private final int[][] heapSizes; // heapSizes[i][v] - размер кучи вершины v на уровне i
+    // на уровень 0 рёбра попадают только при загрузке, поэтому его кучи лежат подряд в одном массиве
+    private long[] baseHeaps = new long[INITIAL_CAPACITY];
+    private final int[] baseBegin; // куча вершины v на уровне 0 начинается с baseHeaps[baseBegin[v]]
+
+    private byte[] state = new byte[INITIAL_CAPACITY];
+    private int[] level = new int[INITIAL_CAPACITY];
+    private int[] edgeFrom = new int[INITIAL_CAPACITY];
+    private int[] edgeTo = new int[INITIAL_CAPACITY];
+    private int[] loaded = new int[INITIAL_CAPACITY]; // рёбра леса, загруженные после clear()
+    private int loadedCount;
+    private int[] loadedOthers = new int[INITIAL_CAPACITY]; // рёбра вне леса, загруженные после clear()
+    private long[] loadedKeys = new long[INITIAL_CAPACITY];
+    private int loadedOtherCount;
+    private int[] raised = new int[INITIAL_CAPACITY]; // рёбра, поднятые при переносе дерева целиком
+
+    DecrementalMsf(int vertexCount) {
+        this.vertexCount = vertexCount;
+        int levels = 32 - Integer.numberOfLeadingZeros(Math.max(vertexCount, 1));
+        forests = new EulerTourForest[levels];
+        heaps = new long[levels][][];
+        heapSizes = new int[levels][];
+        baseBegin = new int[vertexCount + 1];
+    }
+
+    /**
+     * Удаляет все рёбра. Новые рёбра загружаются вызовами {@link #addTree} и {@link #addNonTree}
+     * и вступают в силу после {@link #build()}.
+     */
+    void clear() {
+        for (int i = 0; i < forests.length; i++) {
+            if (forests[i] != null) {
+                forests[i].clear();
+                Arrays.fill(heapSizes[i], 0);
+            }
+        }
+        Arrays.fill(state, ABSENT);
+        loadedCount = 0;
+        loadedOtherCount = 0;
+        forest(0);
+    }
+
+    /**
+     * Загружает ребро леса на уровень 0. Загруженные рёбра леса не должны образовывать циклов.
+     */
+    void addTree(int edge, int from, int to) {
+        put(edge, from, to, TREE);
+        if (loadedCount == loaded.length) {
+            loaded = Arrays.copyOf(loaded, loadedCount * 2);
+        }
+        loaded[loadedCount++] = edge;
+    }
+
+    /**
+     * Загружает ребро вне леса на уровень 0. Концы ребра должны быть связаны загруженным лесом, и ключ ребра
+     * должен быть больше ключей всех рёбер леса на пути между концами.
+     */
+    void addNonTree(int edge, int from, int to, long key) {
+        put(edge, from, to, NON_TREE);
+        if (loadedOtherCount == loadedOthers.length) {
+            loadedOthers = Arrays.copyOf(loadedOthers, loadedOtherCount * 2);
+            loadedKeys = Arrays.copyOf(loadedKeys, loadedOtherCount * 2);
+        }
+        loadedOthers[loadedOtherCount] = edge;
+        loadedKeys[loadedOtherCount++] = key;
+    }
+
+    /**
+     * Строит уровень 0 из загруженных рёбер за O(V + E): кучи упорядочиваются целиком, а деревья F_0
+     * собираются из эйлеровых обходов в глубину, а не последовательными link.
+     */
+    void build() {
+        int[] sizes = heapSizes[0];
+        for (int k = 0; k < loadedOtherCount; k++) {
+            sizes[edgeFrom[loadedOthers[k]]]++;
+            sizes[edgeTo[loadedOthers[k]]]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            baseBegin[v + 1] = baseBegin[v] + sizes[v];
+        }
+        if (baseHeaps.length < baseBegin[vertexCount]) {
+            baseHeaps = new long[Math.max(baseBegin[vertexCount], baseHeaps.length * 2)];
+        }
+        int[] next = Arrays.copyOf(baseBegin, vertexCount);
+        for (int k = 0; k < loadedOtherCount; k++) {
+            baseHeaps[next[edgeFrom[loadedOthers[k]]]++] = loadedKeys[k];
+            baseHeaps[next[edgeTo[loadedOthers[k]]]++] = loadedKeys[k];
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            for (int position = sizes[v] / 2 - 1; position >= 0; position--) {
+                siftDown(baseHeaps, baseBegin[v], position, sizes[v], baseHeaps[baseBegin[v] + position]);
+            }
+        }
+
+        int[] begin = new int[vertexCount + 1];
+        for (int k = 0; k < loadedCount; k++) {
+            begin[edgeFrom[loaded[k]] + 1]++;
+            begin[edgeTo[loaded[k]] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            begin[v + 1] += begin[v];
+        }
+        System.arraycopy(begin, 0, next, 0, vertexCount);
+        int[] adjacent = new int[2 * loadedCount];
+        for (int k = 0; k < loadedCount; k++) {
+            adjacent[next[edgeFrom[loaded[k]]]++] = loaded[k];
+            adjacent[next[edgeTo[loaded[k]]]++] = loaded[k];
+        }
+        System.arraycopy(begin, 0, next, 0, vertexCount);
+
+        EulerTourForest forest = forests[0];
+        int[] stack = new int[vertexCount]; // вершины пути обхода
+        int[] parentEdge = new int[vertexCount]; // ребро, по которому обход пришёл в вершину
+        boolean[] visited = new boolean[vertexCount];
+        for (int root = 0; root < vertexCount; root++) {
+            if (visited[root] || begin[root] == begin[root + 1]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            parentEdge[root] = NONE;
+            visited[root] = true;
+            forest.appendVertex(root, topKey(0, root));
+            while (top > 0) {
+                int vertex = stack[top - 1];
+                if (next[vertex] == begin[vertex + 1]) {
+                    top--;
+                    if (parentEdge[vertex] != NONE) {
+                        forest.appendArc(parentEdge[vertex], false, false);
+                    }
+                    continue;
+                }
+                int edge = adjacent[next[vertex]++];
+                int child = edgeFrom[edge] == vertex ? edgeTo[edge] : edgeFrom[edge];
+                if (!visited[child]) {
+                    visited[child] = true;
+                    parentEdge[child] = edge;
+                    stack[top++] = child;
+                    forest.appendArc(edge, true, true);
+                    forest.appendVertex(child, topKey(0, child));
+                }
+            }
+            forest.finishTour();
+        }
+    }
+
+    boolean contains(int edge) {
+        return edge < state.length && state[edge] != ABSENT;
+    }
+
+    boolean isTree(int edge) {
+        return edge < state.length && state[edge] == TREE;
+    }
+
+    /**
+     * Удаляет ребро вне леса за O(1): его ключи в кучах устаревают.
+     */
+    void removeNonTree(int edge) {
+        state[edge] = ABSENT;
+    }
+
+    /**
+     * Удаляет ребро леса и ищет самое лёгкое ребро вне леса, соединяющее получившиеся части.
+     * @return номер ребра, ставшего ребром леса, либо -1, если части больше ничем не соединены
+     */
+    int removeTree(int edge) {
+        int top = level[edge];
+        for (int i = 0; i <= top; i++) {
+            forests[i].cut(edge);
+        }
+        state[edge] = ABSENT;
+        int from = edgeFrom[edge];
+        int to = edgeTo[edge];
+        for (int i = top; i >= 0; i--) {
+            EulerTourForest forest = forests[i];
+            int fromSize = forest.size(from);
+            int toSize = forest.size(to);
+            int side = fromSize <= toSize ? from : to;
+            raiseTreeEdges(i, side, Math.min(fromSize, toSize));
+            for (long key = forest.minKey(side); key != EulerTourForest.NO_KEY; key = forest.minKey(side)) {
+                int candidate = (int) key;
+                int a = edgeFrom[candidate];
+                int b = edgeTo[candidate];
+                // наименьший ключ лежит на вершине кучи одного из концов; ключ у другого конца устареет
+                if (topKey(i, a) == key) {
+                    pop(i, a);
+                }
+                if (topKey(i, b) == key) {
+                    pop(i, b);
+                }
+                if (state[candidate] != NON_TREE || level[candidate] != i) {
+                    continue;
+                }
+                if (!forest.connected(a, b)) {
+                    state[candidate] = TREE;
+                    for (int j = 0; j <= i; j++) {
+                        forests[j].link(a, b, candidate, j == i);
+                    }
+                    return candidate;
+                }
+                level[candidate] = i + 1;
+                forest(i + 1);
+                push(i + 1, a, key);
+                push(i + 1, b, key);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Поднимает рёбра леса уровня i из дерева вершины на уровень i + 1.
+     */
+    private void raiseTreeEdges(int i, int vertex, int size) {
+        EulerTourForest forest = forests[i];
+        int count = forest.markedCount(vertex);
+        if (count == 0) {
+            return;
+        }
+        if ((long) count * BULK_RATIO >= size) {
+            if (raised.length < count) {
+                raised = new int[Math.max(count, raised.length * 2)];
+            }
+            int raisedCount = forest(i + 1).absorb(forest, vertex, raised);
+            for (int k = 0; k < raisedCount; k++) {
+                level[raised[k]] = i + 1;
+            }
+            return;
+        }
+        for (int edge = forest.findMarked(vertex); edge != NONE; edge = forest.findMarked(vertex)) {
+            forest.setMark(edge, false);
+            level[edge] = i + 1;
+            forest(i + 1).link(edgeFrom[edge], edgeTo[edge], edge, true);
+        }
+    }
+
+    private void put(int edge, int from, int to, byte kind) {
+        if (edge >= state.length) {
+            int capacity = Math.max(edge + 1, state.length * 2);
+            state = Arrays.copyOf(state, capacity);
+            level = Arrays.copyOf(level, capacity);
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+        }
+        state[edge] = kind;
+        level[edge] = 0;
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+    }
+
+    private EulerTourForest forest(int i) {
+        if (forests[i] == null) {
+            forests[i] = new EulerTourForest(vertexCount);
+            heaps[i] = i == 0 ? null : new long[vertexCount][];
+            heapSizes[i] = new int[vertexCount];
+        }
+        return forests[i];
+    }
+
+    /**
+     * Добавляет ключ в кучу вершины на уровне i > 0.
+     */
+    private void push(int i, int vertex, long key) {
+        long[] heap = heaps[i][vertex];
+        int size = heapSizes[i][vertex];
+        if (heap == null) {
+            heap = new long[4];
+        } else if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heaps[i][vertex] = heap;
+        heapSizes[i][vertex] = size + 1;
+        siftUp(heap, size, key);
+        if (heap[0] == key) {
+            forests[i].setKey(vertex, key);
+        }
+    }
+
+    private long topKey(int i, int vertex) {
+        if (heapSizes[i][vertex] == 0) {
+            return EulerTourForest.NO_KEY;
+        }
+        return i == 0 ? baseHeaps[baseBegin[vertex]] : heaps[i][vertex][0];
+    }
+
+    /**
+     * Удаляет наименьший ключ из кучи вершины на уровне i.
+     */
+    private void pop(int i, int vertex) {
+        long[] heap = i == 0 ? baseHeaps : heaps[i][vertex];
+        int offset = i == 0 ? baseBegin[vertex] : 0;
+        int size = --heapSizes[i][vertex];
+        if (size > 0) {
+            siftDown(heap, offset, 0, size, heap[offset + size]);
+        }
+        forests[i].setKey(vertex, topKey(i, vertex));
+    }
+
+    private static void siftUp(long[] heap, int position, long key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent] < key) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = key;
+    }
+
+    /**
+     * Просеивание вниз в куче размера size, которая лежит в heap начиная с offset.
+     */
+    private static void siftDown(long[] heap, int offset, int position, int size, long key) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[offset + child + 1] < heap[offset + child]) {
+                child++;
+            }
+            if (key < heap[offset + child]) {
+                break;
+            }
+            heap[offset + position] = heap[offset + child];
+            position = child;
+        }
+        heap[offset + position] = key;
+    }
+}
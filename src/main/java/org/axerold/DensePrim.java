@@ -0,0 +1,112 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Классический вариант алгоритма Прима для плотных графов, работающий напрямую с матрицей весов.
+ * Вместо очереди с приоритетом используются массивы key[] и parent[], а очередная вершина
+ * выбирается линейным просмотром за O(V). Итого O(V²), что для плотного графа (E ~ V²) асимптотически
+ * оптимально и на практике быстрее кучи: нет ни объектов, ни перестановок в куче, а строки матрицы
+ * читаются последовательно.
+ * <p>
+ * При равных расстояниях выбирается вершина с меньшим индексом, поэтому результат совпадает
+ * с результатом {@link Prim}.
+ */
+@Slf4j
+public class DensePrim implements MstEngine {
+    private static final int INFINITY = Integer.MAX_VALUE; // расстояние до MST у ещё не достигнутых вершин
+
+    private final Graph graph;
+
+    public DensePrim(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Без заданной стартовой вершины выбирается случайная вершина графа.
+     */
+    @Override
+    public void run() {
+        int vertexIndex = (int) (Math.random() * graph.getVertexCount());
+        run(vertexIndex);
+    }
+
+    /**
+     * Шаг алгоритма совмещает релаксацию строки матрицы только что добавленной вершины
+     * с поиском следующей ближайшей к MST вершины, так что на шаг приходится один проход по массивам.
+     * @param startVertex стартовая вершина
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    @Override
+    public void run(int startVertex) {
+        int[][] matrix = graph.getInitMatrix();
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+
+        int[] parent = new int[n]; // предок в MST
+        int[] parentWeight = new int[n]; // вес ребра до предка
+        int trees = solve(matrix, startVertex, new int[n], new boolean[n], parent, parentWeight);
+        if (trees > 1) {
+            log.info("Forest of {} minimum spanning trees is built", trees);
+        }
+        graph.setSpanningForest(parent, parentWeight);
+    }
+
+    /**
+     * Сам алгоритм, без графа: матрица только читается, а все рабочие массивы передаются снаружи, так что
+     * их можно переиспользовать между запусками. Длина массивов - не меньше V, содержимое key и inTree
+     * перед запуском может быть любым.
+     * @param matrix корректная матрица весов, см. {@link MatrixScanner#validate(int[][])}
+     * @param key рабочий массив расстояний до MST
+     * @param inTree рабочий массив отметок вершин, вошедших в MST
+     * @param parent сюда записывается предок каждой вершины (-1 для корней)
+     * @param parentWeight сюда записывается вес ребра от вершины до предка
+     * @return количество деревьев в лесе
+     */
+    static int solve(int[][] matrix, int startVertex, int[] key, boolean[] inTree, int[] parent,
+                     int[] parentWeight) {
+        int n = matrix.length;
+        Arrays.fill(key, 0, n, INFINITY);
+        Arrays.fill(inTree, 0, n, false);
+        Arrays.fill(parent, 0, n, -1);
+        key[startVertex] = 0;
+
+        int vertex = startVertex;
+        int trees = 0; // количество деревьев в лесе
+        long relaxed = 0; // счётчики для MstMetrics
+        long decreases = 0;
+        for (int step = 0; step < n; step++) {
+            inTree[vertex] = true;
+            parentWeight[vertex] = key[vertex];
+            if (parent[vertex] < 0) {
+                trees++; // вершина без предка - корень очередного дерева
+            }
+
+            int[] row = matrix[vertex];
+            int next = -1;
+            for (int v = 0; v < n; v++) {
+                if (inTree[v]) {
+                    continue;
+                }
+                int weight = row[v];
+                if (weight != 0) {
+                    relaxed++;
+                    if (weight < key[v]) {
+                        key[v] = weight;
+                        parent[v] = vertex;
+                        decreases++;
+                    }
+                }
+                if (next < 0 || key[v] < key[next]) {
+                    next = v;
+                }
+            }
+            vertex = next;
+        }
+        MstMetrics.recordEngine(0, decreases, relaxed, n);
+        return trees;
+    }
+}
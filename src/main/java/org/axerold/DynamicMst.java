@@ -0,0 +1,733 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Поддержка минимального остовного леса при изменениях графа без пересчёта с нуля. <br>
+ * Рёбра сравниваются по весу, а при равных весах - по номеру, так что минимальный лес единственен. Рёбра графа
+ * делятся на две части: большинство лежит в {@link DecrementalMsf}, который умеет только удалять рёбра,
+ * а вставленные с последней перестройки рёбра (и рёбра, ставшие легче) - в буфере. Лес хранится
+ * в {@link LinkCutTree} и равен минимальному лесу графа H из рёбер леса DecrementalMsf и буфера: рёбра вне леса
+ * DecrementalMsf не входят в минимальный лес графа. Рёбра H вне леса (их не больше, чем рёбер в буфере)
+ * хранятся списком запасных S.
+ * <ul>
+ *     <li>Новое ребро u - v попадает в буфер: если u и v в разных деревьях, ребро добавляется в лес; иначе
+ *     ищется самое тяжёлое ребро на пути u - v, и если оно тяжелее, то вытесняется новым в запасные.
+ *     Уменьшение веса ребра - то же самое. Обе операции стоят O(log V) и никогда не перестраивают лес.</li>
+ *     <li>Удаление ребра леса: ребро вырезается, и замена ищется среди запасных рёбер
+ *     за O(min(размер меньшей части, |S|) log V). Если ребро лежало в лесе DecrementalMsf, то замену в нём
+ *     ищут уровни Холма - де Лихтенберга - Торупа за амортизированное O(log² V), и найденное ребро
+ *     добавляется в H как новое. Увеличение веса - удаление ребра и вставка его в буфер.</li>
+ *     <li>Когда поиски замен с последней перестройки сделали больше 4 (V + E) шагов, все рёбра графа заново
+ *     загружаются в DecrementalMsf с текущим лесом, и буфер пустеет. Перестройка стоит не больше уже
+ *     сделанных поисков, так что оплачивается удалениями, а не вставками. Между перестройками
+ *     k вставок и удаления по O(k) шагов набирают O(V + E) шагов только за Ω((V + E) / k) удалений, поэтому
+ *     амортизированная стоимость операции - O(sqrt(V + E) log V).</li>
+ * </ul>
+ * Между парой вершин хранится не больше одного ребра: при повторной вставке остаётся более лёгкое. <br>
+ * Класс не потокобезопасен.
+ */
+public final class DynamicMst {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int REBUILD_RATIO = 4; // шагов поиска замен на вершину и ребро до перестройки
+    private static final int SEARCH_RATIO = 32; // шагов обхода меньшей части на одно запасное ребро
+    private static final byte FREE = 0; // номер ребра свободен
+    private static final byte BUFFERED = 1; // ребро в буфере
+    private static final byte DECREMENTAL = 2; // ребро в DecrementalMsf
+
+    private final int vertexCount;
+    private final Graph graph; // граф, которому передаётся лес в publish(), либо null
+    private final LinkCutTree forest;
+    private final LongIntHashMap edgeIds = new LongIntHashMap(); // ключ пары вершин -> номер ребра
+
+    private int[] edgeFrom = new int[INITIAL_CAPACITY]; // первый конец ребра
+    private int[] edgeTo = new int[INITIAL_CAPACITY]; // второй конец ребра
+    private int[] edgeWeight = new int[INITIAL_CAPACITY]; // вес ребра
+    private int[] edgeNode = new int[INITIAL_CAPACITY]; // узел ребра в лесе, либо NONE для рёбер вне леса
+    private byte[] edgeState = new byte[INITIAL_CAPACITY]; // FREE, BUFFERED или DECREMENTAL
+    private int[] sparePosition = new int[INITIAL_CAPACITY]; // место ребра в списке запасных, либо NONE
+    private int edgeLimit; // номера рёбер лежат в [0, edgeLimit)
+    private int[] freeEdges = new int[INITIAL_CAPACITY]; // освободившиеся номера рёбер
+    private int freeEdgeCount;
+
+    private final int[] nodeEdge; // nodeEdge[node - vertexCount] - ребро, которому отдан узел леса
+    private final int[] freeNodes; // свободные узлы-рёбра леса
+    private int freeNodeCount;
+
+    private final Incidence treeEdges; // рёбра леса у каждой вершины
+    private long totalWeight;
+    private int treeEdgeCount;
+
+    private final DecrementalMsf decremental;
+    private long searchWork; // шагов поиска замен с последней перестройки
+    private int[] spare = new int[INITIAL_CAPACITY]; // рёбра H вне леса
+    private int spareCount;
+    private final Incidence spareEdges; // запасные рёбра у каждой вершины
+
+    private final int[] mark; // метка части, в которую попала вершина при поиске замены
+    private int stamp; // метки текущего поиска - stamp и stamp + 1
+    private final int[] firstQueue;
+    private final int[] secondQueue;
+
+    private int[] journal = new int[INITIAL_CAPACITY]; // рёбра, вошедшие в лес или покинувшие его за операцию
+    private boolean[] journalWasTree = new boolean[INITIAL_CAPACITY]; // лежало ли ребро в лесе до операции
+    private int journalSize;
+
+    /**
+     * Загружает все рёбра графа; рёбра MST, уже построенного на графе, образуют начальный лес.
+     * @param graph граф, для которого уже построено MST
+     * @throws IllegalArgumentException если алгоритм на графе ещё не запускался
+     */
+    public DynamicMst(Graph graph) {
+        this(graph, graph.getCsrGraph(), requireResult(graph));
+    }
+
+    /**
+     * Граф состоит только из рёбер леса; остальные рёбра можно добавить через {@link #insertEdge}.
+     * @param result минимальный остовный лес, с которого начинаются обновления
+     */
+    public DynamicMst(MstResult result) {
+        this(null, null, result);
+    }
+
+    private DynamicMst(Graph graph, SparseGraph sparseGraph, MstResult result) {
+        this.graph = graph;
+        vertexCount = result.getVertexCount();
+        int nodeCapacity = Math.max(vertexCount - 1, 0); // в лесе не больше V - 1 рёбер
+        forest = new LinkCutTree(vertexCount, vertexCount + nodeCapacity);
+        nodeEdge = new int[nodeCapacity];
+        freeNodes = new int[nodeCapacity];
+        for (int slot = nodeCapacity - 1; slot >= 0; slot--) {
+            freeNodes[freeNodeCount++] = vertexCount + slot;
+        }
+        treeEdges = new Incidence();
+        spareEdges = new Incidence();
+        decremental = new DecrementalMsf(vertexCount);
+        mark = new int[vertexCount];
+        firstQueue = new int[vertexCount];
+        secondQueue = new int[vertexCount];
+
+        result.forEachEdge((from, to, weight) -> link(newEdge(from, to, weight)));
+        if (sparseGraph != null) {
+            for (int from = 0; from < vertexCount; from++) {
+                for (int e = sparseGraph.edgesBegin(from); e < sparseGraph.edgesEnd(from); e++) {
+                    int to = sparseGraph.getTarget(e);
+                    if (from < to) {
+                        loadEdge(from, to, sparseGraph.getWeight(e));
+                    }
+                }
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Добавляет ребро исходного графа, не вошедшее в лес. Из параллельных рёбер остаётся самое лёгкое.
+     */
+    private void loadEdge(int from, int to, int weight) {
+        int edge = edgeIds.get(key(from, to));
+        if (edge == NONE) {
+            newEdge(from, to, weight);
+        } else if (edgeNode[edge] == NONE && weight < edgeWeight[edge]) {
+            edgeWeight[edge] = weight;
+        }
+    }
+
+    private static MstResult requireResult(Graph graph) {
+        if (graph.getMstResult() == null) {
+            throw new IllegalArgumentException("Minimum spanning tree is not built yet");
+        }
+        return graph.getMstResult();
+    }
+
+    /**
+     * Добавляет ребро в граф. Если между вершинами уже есть ребро, остаётся более лёгкое из них.
+     * @return true, если изменился набор рёбер леса
+     * @throws IllegalArgumentException если индекс вне диапазона, ребро является петлёй или вес нулевой
+     */
+    public boolean insertEdge(int from, int to, int weight) {
+        checkEdge(from, to, weight);
+        int edge = edgeIds.get(key(from, to));
+        if (edge != NONE) {
+            return weight < edgeWeight[edge] && lighten(edge, weight);
+        }
+        journalSize = 0;
+        buffer(newEdge(from, to, weight));
+        return forestChanged();
+    }
+
+    /**
+     * Уменьшает вес ребра до weight. Для отсутствующего ребра равносильно {@link #insertEdge}.
+     * @return true, если изменился набор рёбер леса
+     * @throws IllegalArgumentException если текущий вес ребра меньше weight
+     */
+    public boolean decreaseWeight(int from, int to, int weight) {
+        checkEdge(from, to, weight);
+        int edge = edgeIds.get(key(from, to));
+        if (edge == NONE) {
+            return insertEdge(from, to, weight);
+        }
+        if (edgeWeight[edge] < weight) {
+            throw new IllegalArgumentException("Weight of edge %d - %d is %d, which is less than %d"
+                    .formatted(from, to, edgeWeight[edge], weight));
+        }
+        return lighten(edge, weight);
+    }
+
+    /**
+     * Увеличивает вес ребра до weight. Ребро леса может быть заменено более лёгким ребром вне леса.
+     * @return true, если изменился набор рёбер леса
+     * @throws IllegalArgumentException если ребра нет или его текущий вес больше weight
+     */
+    public boolean increaseWeight(int from, int to, int weight) {
+        checkEdge(from, to, weight);
+        int edge = requireEdge(from, to);
+        if (edgeWeight[edge] > weight) {
+            throw new IllegalArgumentException("Weight of edge %d - %d is %d, which is greater than %d"
+                    .formatted(from, to, edgeWeight[edge], weight));
+        }
+        if (edgeNode[edge] == NONE && edgeState[edge] == BUFFERED) {
+            // запасное ребро буфера не держит никаких порядков, и лес от него не зависит
+            edgeWeight[edge] = weight;
+            return false;
+        }
+        journalSize = 0;
+        detach(edge);
+        edgeWeight[edge] = weight;
+        buffer(edge);
+        boolean changed = forestChanged();
+        rebuildAfterSearches();
+        return changed;
+    }
+
+    /**
+     * Удаляет ребро из графа. Если ребро лежало в лесе, ищется замена.
+     * @return true, если изменился набор рёбер леса
+     * @throws IllegalArgumentException если ребра нет
+     */
+    public boolean deleteEdge(int from, int to) {
+        checkVertices(from, to);
+        int edge = requireEdge(from, to);
+        edgeIds.remove(key(from, to));
+        journalSize = 0;
+        detach(edge);
+        edgeState[edge] = FREE;
+        freeEdges[freeEdgeCount++] = edge;
+        boolean changed = forestChanged();
+        rebuildAfterSearches();
+        return changed;
+    }
+
+    /**
+     * @return true, если ребро лежит в текущем лесе
+     */
+    public boolean isTreeEdge(int from, int to) {
+        int edge = edgeIds.get(key(from, to));
+        return edge != NONE && edgeNode[edge] != NONE;
+    }
+
+    /**
+     * @return true, если ребро есть в графе (в лесе или вне его)
+     */
+    public boolean containsEdge(int from, int to) {
+        return edgeIds.containsKey(key(from, to));
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return количество рёбер в лесе
+     */
+    public int getEdgeCount() {
+        return treeEdgeCount;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Собирает текущий лес в массив предков. Корнями становятся вершины с наименьшим индексом в своём дереве.
+     * Работает за O(V).
+     */
+    public MstResult toResult() {
+        int[] parent = new int[vertexCount];
+        int[] weight = new int[vertexCount];
+        boolean[] visited = new boolean[vertexCount];
+        int[] queue = firstQueue;
+        for (int root = 0; root < vertexCount; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            visited[root] = true;
+            parent[root] = NONE;
+            while (head < tail) {
+                int vertex = queue[head++];
+                for (int k = 0; k < treeEdges.size(vertex); k++) {
+                    int edge = treeEdges.get(vertex, k);
+                    int child = edgeFrom[edge] == vertex ? edgeTo[edge] : edgeFrom[edge];
+                    if (!visited[child]) {
+                        visited[child] = true;
+                        parent[child] = vertex;
+                        weight[child] = edgeWeight[edge];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+        }
+        return new MstResult(parent, weight);
+    }
+
+    /**
+     * Передаёт текущий лес графу, из которого он был построен: после вызова {@link Graph#getMstResult()}
+     * и {@link Edge#doesBelongToTree()} соответствуют лесу. Граф не меняется, поэтому опубликовать можно
+     * только лес из рёбер графа с их исходными весами - например, после удалений и после изменений весов,
+     * которые не затронули рёбра леса. Компоненты связности графа не пересчитываются. Работает за O(V + E).
+     * @throws IllegalArgumentException если объект создан не по графу или в лесе есть ребро, которого нет
+     * в графе (добавленное или с изменённым весом)
+     */
+    public void publish() {
+        if (graph == null) {
+            throw new IllegalArgumentException("Dynamic forest is not bound to a graph");
+        }
+        MstResult result = toResult();
+        SparseGraph sparseGraph = graph.getCsrGraph();
+        for (int v = 0; v < vertexCount; v++) {
+            int parent = result.getParent(v);
+            if (parent != NONE && !hasEdge(sparseGraph, v, parent, result.getWeight(v))) {
+                throw new IllegalArgumentException("Edge %d - %d of weight %d is not in the graph"
+                        .formatted(v, parent, result.getWeight(v)));
+            }
+        }
+        graph.setSpanningForest(result);
+    }
+
+    private static boolean hasEdge(SparseGraph graph, int from, int to, int weight) {
+        for (int e = graph.edgesBegin(from); e < graph.edgesEnd(from); e++) {
+            if (graph.getTarget(e) == to && graph.getWeight(e) == weight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Уменьшает вес ребра до weight.
+     */
+    private boolean lighten(int edge, int weight) {
+        if (edgeNode[edge] != NONE) {
+            // более лёгкое ребро леса остаётся в лесе, а ключи рёбер леса DecrementalMsf не хранит
+            totalWeight += weight - (long) edgeWeight[edge];
+            edgeWeight[edge] = weight;
+            forest.setWeight(edgeNode[edge], weight);
+            return false;
+        }
+        journalSize = 0;
+        if (edgeState[edge] == DECREMENTAL && !decremental.isTree(edge)) {
+            decremental.removeNonTree(edge);
+            edgeWeight[edge] = weight;
+            buffer(edge);
+        } else {
+            removeSpare(edge);
+            edgeWeight[edge] = weight;
+            attach(edge);
+        }
+        return forestChanged();
+    }
+
+    /**
+     * Кладёт в буфер ребро, которого нет ни в DecrementalMsf, ни в буфере, и добавляет его в H.
+     */
+    private void buffer(int edge) {
+        edgeState[edge] = BUFFERED;
+        attach(edge);
+    }
+
+    /**
+     * Убирает ребро из буфера или DecrementalMsf; замена, найденная DecrementalMsf, добавляется в H.
+     */
+    private void detach(int edge) {
+        if (edgeState[edge] == BUFFERED) {
+            release(edge);
+        } else if (decremental.isTree(edge)) {
+            release(edge);
+            int replacement = decremental.removeTree(edge);
+            if (replacement != NONE) {
+                attach(replacement);
+            }
+        } else {
+            decremental.removeNonTree(edge);
+        }
+    }
+
+    /**
+     * Добавляет в H ребро, которого нет ни в лесе, ни среди запасных.
+     */
+    private void attach(int edge) {
+        int heaviest = forest.pathMax(edgeFrom[edge], edgeTo[edge]);
+        if (heaviest == NONE) {
+            record(edge);
+            link(edge);
+            return;
+        }
+        int evicted = nodeEdge[heaviest - vertexCount];
+        if (order(evicted) < order(edge)) {
+            addSpare(edge);
+            return;
+        }
+        record(evicted);
+        cut(evicted);
+        addSpare(evicted);
+        record(edge);
+        link(edge);
+    }
+
+    /**
+     * Убирает ребро из H. Если ребро лежало в лесе, его место занимает самое лёгкое запасное ребро
+     * между получившимися деревьями.
+     */
+    private void release(int edge) {
+        if (edgeNode[edge] == NONE) {
+            removeSpare(edge);
+            return;
+        }
+        record(edge);
+        cut(edge);
+        if (spareCount == 0) {
+            return;
+        }
+        int best = findReplacement(edgeFrom[edge], edgeTo[edge]);
+        if (best != NONE) {
+            removeSpare(best);
+            record(best);
+            link(best);
+        }
+    }
+
+    /**
+     * Ищет самое лёгкое запасное ребро между деревьями вершин a и b, которые только что были одним деревом.
+     * Обходы в ширину запускаются из обоих концов поочерёдно, по вершине за шаг, пока одна из частей
+     * не будет пройдена целиком, и тогда просматриваются запасные рёбра меньшей части. Если меньшая часть
+     * велика по сравнению с числом запасных рёбер, обход прерывается и просматриваются все запасные рёбра,
+     * так что поиск стоит O(min(размер меньшей части, |S| log V)). Сделанные шаги копятся в searchWork.
+     * @return номер ребра, либо NONE, если деревья больше ничем не соединены
+     */
+    private int findReplacement(int a, int b) {
+        if (stamp > Integer.MAX_VALUE - 2) {
+            Arrays.fill(mark, 0);
+            stamp = 0;
+        }
+        stamp += 2;
+        int firstSide = stamp;
+        int secondSide = stamp + 1;
+        int firstHead = 0;
+        int firstTail = 0;
+        int secondHead = 0;
+        int secondTail = 0;
+        firstQueue[firstTail++] = a;
+        mark[a] = firstSide;
+        secondQueue[secondTail++] = b;
+        mark[b] = secondSide;
+        long budget = (long) SEARCH_RATIO * spareCount;
+        while (firstHead < firstTail && secondHead < secondTail) {
+            int steps = treeEdges.size(firstQueue[firstHead]) + treeEdges.size(secondQueue[secondHead]);
+            searchWork += steps;
+            budget -= steps;
+            if (budget < 0) {
+                return scanSpare();
+            }
+            firstTail = visit(firstQueue, firstHead++, firstTail, firstSide);
+            secondTail = visit(secondQueue, secondHead++, secondTail, secondSide);
+        }
+        boolean firstIsSmaller = firstHead == firstTail;
+        int[] queue = firstIsSmaller ? firstQueue : secondQueue;
+        int side = firstIsSmaller ? firstSide : secondSide;
+        int size = firstIsSmaller ? firstTail : secondTail;
+
+        int best = NONE;
+        for (int k = 0; k < size; k++) {
+            int vertex = queue[k];
+            searchWork += spareEdges.size(vertex);
+            for (int i = 0; i < spareEdges.size(vertex); i++) {
+                int edge = spareEdges.get(vertex, i);
+                int other = edgeFrom[edge] == vertex ? edgeTo[edge] : edgeFrom[edge];
+                if (mark[other] != side && (best == NONE || order(edge) < order(best))) {
+                    best = edge;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ищет самое лёгкое запасное ребро, концы которого лежат в разных деревьях. До разреза концы каждого
+     * запасного ребра были связаны, так что несвязанными стали только запасные рёбра между двумя частями.
+     */
+    private int scanSpare() {
+        searchWork += spareCount;
+        int best = NONE;
+        for (int k = 0; k < spareCount; k++) {
+            int candidate = spare[k];
+            if ((best == NONE || order(candidate) < order(best))
+                    && !forest.connected(edgeFrom[candidate], edgeTo[candidate])) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Один шаг обхода в ширину по рёбрам леса: добавляет в очередь непосещённых соседей вершины queue[head].
+     * @return новый конец очереди
+     */
+    private int visit(int[] queue, int head, int tail, int side) {
+        int vertex = queue[head];
+        for (int k = 0; k < treeEdges.size(vertex); k++) {
+            int edge = treeEdges.get(vertex, k);
+            int adjacent = edgeFrom[edge] == vertex ? edgeTo[edge] : edgeFrom[edge];
+            if (mark[adjacent] != side) {
+                mark[adjacent] = side;
+                queue[tail++] = adjacent;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Перестраивает DecrementalMsf, если поиски замен с последней перестройки сделали больше
+     * REBUILD_RATIO (V + E) шагов: тогда перестройка стоит не больше этих поисков.
+     */
+    private void rebuildAfterSearches() {
+        if (searchWork > (long) REBUILD_RATIO * (vertexCount + edgeIds.size())) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Загружает все рёбра графа в DecrementalMsf с текущим лесом и опустошает буфер.
+     */
+    private void rebuild() {
+        decremental.clear();
+        for (int edge = 0; edge < edgeLimit; edge++) {
+            if (edgeState[edge] != FREE && edgeNode[edge] != NONE) {
+                decremental.addTree(edge, edgeFrom[edge], edgeTo[edge]);
+            }
+        }
+        for (int edge = 0; edge < edgeLimit; edge++) {
+            if (edgeState[edge] != FREE) {
+                if (edgeNode[edge] == NONE) {
+                    decremental.addNonTree(edge, edgeFrom[edge], edgeTo[edge], order(edge));
+                }
+                edgeState[edge] = DECREMENTAL;
+                sparePosition[edge] = NONE;
+            }
+        }
+        decremental.build();
+        spareEdges.clear();
+        spareCount = 0;
+        searchWork = 0;
+    }
+
+    private void addSpare(int edge) {
+        sparePosition[edge] = spareCount;
+        spare[spareCount++] = edge;
+        spareEdges.add(edge);
+    }
+
+    private void removeSpare(int edge) {
+        spareEdges.remove(edge);
+        int position = sparePosition[edge];
+        int last = spare[--spareCount];
+        spare[position] = last;
+        sparePosition[last] = position;
+        sparePosition[edge] = NONE;
+    }
+
+    /**
+     * Запоминает, лежало ли ребро в лесе до текущей операции.
+     */
+    private void record(int edge) {
+        for (int k = 0; k < journalSize; k++) {
+            if (journal[k] == edge) {
+                return;
+            }
+        }
+        if (journalSize == journal.length) {
+            journal = Arrays.copyOf(journal, journalSize * 2);
+            journalWasTree = Arrays.copyOf(journalWasTree, journalSize * 2);
+        }
+        journal[journalSize] = edge;
+        journalWasTree[journalSize++] = edgeNode[edge] != NONE;
+    }
+
+    /**
+     * @return true, если за текущую операцию изменился набор рёбер леса
+     */
+    private boolean forestChanged() {
+        for (int k = 0; k < journalSize; k++) {
+            if (journalWasTree[k] != (edgeNode[journal[k]] != NONE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void link(int edge) {
+        int node = freeNodes[--freeNodeCount];
+        nodeEdge[node - vertexCount] = edge;
+        edgeNode[edge] = node;
+        forest.initEdge(node, edgeWeight[edge], edge);
+        forest.link(edgeFrom[edge], node);
+        forest.link(node, edgeTo[edge]);
+        treeEdges.add(edge);
+        totalWeight += edgeWeight[edge];
+        treeEdgeCount++;
+    }
+
+    private void cut(int edge) {
+        int node = edgeNode[edge];
+        forest.cut(edgeFrom[edge], node);
+        forest.cut(node, edgeTo[edge]);
+        freeNodes[freeNodeCount++] = node;
+        edgeNode[edge] = NONE;
+        treeEdges.remove(edge);
+        totalWeight -= edgeWeight[edge];
+        treeEdgeCount--;
+    }
+
+    private int newEdge(int from, int to, int weight) {
+        int edge;
+        if (freeEdgeCount > 0) {
+            edge = freeEdges[--freeEdgeCount];
+        } else {
+            if (edgeLimit == edgeFrom.length) {
+                int capacity = edgeLimit + (edgeLimit >> 1);
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+                edgeNode = Arrays.copyOf(edgeNode, capacity);
+                edgeState = Arrays.copyOf(edgeState, capacity);
+                sparePosition = Arrays.copyOf(sparePosition, capacity);
+                spare = Arrays.copyOf(spare, capacity);
+                freeEdges = Arrays.copyOf(freeEdges, capacity);
+            }
+            edge = edgeLimit++;
+        }
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeWeight[edge] = weight;
+        edgeNode[edge] = NONE;
+        edgeState[edge] = BUFFERED;
+        sparePosition[edge] = NONE;
+        edgeIds.put(key(from, to), edge);
+        return edge;
+    }
+
+    private int requireEdge(int from, int to) {
+        int edge = edgeIds.get(key(from, to));
+        if (edge == NONE) {
+            throw new IllegalArgumentException("There is no edge %d - %d".formatted(from, to));
+        }
+        return edge;
+    }
+
+    private void checkEdge(int from, int to, int weight) {
+        checkVertices(from, to);
+        if (weight == 0) {
+            throw new IllegalArgumentException("Zero weight means that there is no edge %d - %d"
+                    .formatted(from, to));
+        }
+    }
+
+    private void checkVertices(int from, int to) {
+        if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount) {
+            throw new IllegalArgumentException("Edge %d - %d is out of range [0, %d)"
+                    .formatted(from, to, vertexCount));
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("Loops are unacceptable: vertex " + from);
+        }
+    }
+
+    private static long key(int from, int to) {
+        return (long) Math.min(from, to) << 32 | Math.max(from, to);
+    }
+
+    /**
+     * @return ключ, по которому сравниваются рёбра: вес, а при равных весах - номер ребра
+     */
+    private long order(int edge) {
+        return (long) edgeWeight[edge] << 32 | edge;
+    }
+
+    /**
+     * Списки инцидентности вершин с удалением за O(1): для каждого ребра хранится его место в списках
+     * обоих концов, а удалённое место занимает последний элемент списка.
+     */
+    private final class Incidence {
+        private final int[][] lists = new int[vertexCount][];
+        private final int[] sizes = new int[vertexCount];
+        private int[] positionAtFrom = new int[INITIAL_CAPACITY]; // место ребра в списке edgeFrom[edge]
+        private int[] positionAtTo = new int[INITIAL_CAPACITY]; // место ребра в списке edgeTo[edge]
+
+        int size(int vertex) {
+            return sizes[vertex];
+        }
+
+        int get(int vertex, int index) {
+            return lists[vertex][index];
+        }
+
+        void add(int edge) {
+            if (edge >= positionAtFrom.length) {
+                int capacity = Math.max(edge + 1, positionAtFrom.length * 2);
+                positionAtFrom = Arrays.copyOf(positionAtFrom, capacity);
+                positionAtTo = Arrays.copyOf(positionAtTo, capacity);
+            }
+            append(edgeFrom[edge], edge);
+            append(edgeTo[edge], edge);
+        }
+
+        void remove(int edge) {
+            take(edgeFrom[edge], edge);
+            take(edgeTo[edge], edge);
+        }
+
+        void clear() {
+            Arrays.fill(sizes, 0);
+        }
+
+        private void append(int vertex, int edge) {
+            int[] list = lists[vertex];
+            if (list == null) {
+                list = new int[4];
+            } else if (sizes[vertex] == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+            }
+            lists[vertex] = list;
+            setPosition(vertex, edge, sizes[vertex]);
+            list[sizes[vertex]++] = edge;
+        }
+
+        private void take(int vertex, int edge) {
+            int position = edgeFrom[edge] == vertex ? positionAtFrom[edge] : positionAtTo[edge];
+            int last = lists[vertex][--sizes[vertex]];
+            lists[vertex][position] = last;
+            setPosition(vertex, last, position);
+        }
+
+        private void setPosition(int vertex, int edge, int position) {
+            if (edgeFrom[edge] == vertex) {
+                positionAtFrom[edge] = position;
+            } else {
+                positionAtTo[edge] = position;
+            }
+        }
+    }
+}
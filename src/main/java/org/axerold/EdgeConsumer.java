@@ -0,0 +1,9 @@
+package org.axerold;
+
+/**
+ * Получатель рёбер. Вершины передаются индексами, то есть нумерация начинается с нуля.
+ */
+@FunctionalInterface
+public interface EdgeConsumer {
+    void accept(int from, int to, int weight);
+}
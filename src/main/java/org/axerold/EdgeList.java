@@ -0,0 +1,124 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Список неориентированных рёбер графа в виде трёх параллельных массивов.
+ * Нужен алгоритмам, которые перебирают рёбра, а не списки смежности (Борувка, Краскал).
+ * Номер ребра - его индекс в массивах; порядок рёбер определяется порядком в CSR и от запуска к запуску не меняется.
+ */
+public final class EdgeList {
+    private final int vertexCount;
+    private final int[] first;
+    private final int[] second;
+    private final int[] weights;
+
+    private EdgeList(int vertexCount, int[] first, int[] second, int[] weights) {
+        this.vertexCount = vertexCount;
+        this.first = first;
+        this.second = second;
+        this.weights = weights;
+    }
+
+    /**
+     * Каждое ребро u - v берётся из списка смежности вершины с меньшим индексом.
+     */
+    public static EdgeList of(SparseGraph graph) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        int[] first = new int[m];
+        int[] second = new int[m];
+        int[] weights = new int[m];
+        int size = 0;
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgesBegin(u); e < graph.edgesEnd(u); e++) {
+                int v = graph.getTarget(e);
+                if (u < v) {
+                    first[size] = u;
+                    second[size] = v;
+                    weights[size++] = graph.getWeight(e);
+                }
+            }
+        }
+        return new EdgeList(n, first, second, weights);
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int size() {
+        return first.length;
+    }
+
+    public int getFirst(int edge) {
+        return first[edge];
+    }
+
+    public int getSecond(int edge) {
+        return second[edge];
+    }
+
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Переводит множество выбранных рёбер леса в массив предков, как у алгоритма Прима.
+     * Обход в ширину начинается со стартовой вершины, остальные компоненты связности
+     * подвешиваются за вершину с наименьшим индексом.
+     * @param inForest inForest[i] - ребро i входит в остовный лес
+     * @param startVertex корень дерева, содержащего стартовую вершину
+     * @param parent сюда записывается предок каждой вершины, -1 для корней
+     * @param parentWeight сюда записывается вес ребра до предка
+     */
+    public void orientForest(boolean[] inForest, int startVertex, int[] parent, int[] parentWeight) {
+        int n = vertexCount;
+        int[] offsets = new int[n + 1]; // списки смежности самого леса, в формате CSR
+        for (int i = 0; i < first.length; i++) {
+            if (inForest[i]) {
+                offsets[first[i] + 1]++;
+                offsets[second[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] adjacentEdges = new int[offsets[n]];
+        for (int i = 0; i < first.length; i++) {
+            if (inForest[i]) {
+                adjacentEdges[next[first[i]]++] = i;
+                adjacentEdges[next[second[i]]++] = i;
+            }
+        }
+
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        for (int k = -1; k < n; k++) {
+            int root = k < 0 ? startVertex : k;
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            parent[root] = -1;
+            parentWeight[root] = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                    int edge = adjacentEdges[p];
+                    int u = first[edge] == v ? second[edge] : first[edge];
+                    if (!visited[u]) {
+                        visited[u] = true;
+                        parent[u] = v;
+                        parentWeight[u] = weights[edge];
+                        queue[tail++] = u;
+                    }
+                }
+            }
+        }
+    }
+}
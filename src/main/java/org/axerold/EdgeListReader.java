@@ -0,0 +1,87 @@
+package org.axerold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Потоковое чтение графа в формате списка рёбер. <br>
+ * Корректный формат файла: <br>
+ * n v <br>
+ * u1 v1 w1 <br>
+ * ::: ::: ::: <br>
+ * uk vk wk <br>
+ * где n - количество вершин, v - стартовая вершина (как и в формате матрицы весов),
+ * а каждая следующая строка задаёт ребро между вершинами с номерами ui и vi (нумерация с единицы) весом wi.
+ * Как и в матрице весов, ребро с нулевым весом считается отсутствующим.
+ * Файл может быть сжат gzip (расширение .gz). <br>
+ * Рёбра сразу передаются потребителю, поэтому ни матрица n×n, ни весь текст файла в памяти не хранятся.
+ */
+public final class EdgeListReader implements Closeable {
+    private final IntTokenizer tokenizer;
+    private final int vertexCount;
+    private final int startVertex;
+
+    /**
+     * Открывает файл и сразу читает заголовок.
+     * @throws IllegalArgumentException если заголовок некорректен
+     */
+    public EdgeListReader(Path path) throws IOException {
+        tokenizer = IntTokenizer.open(path);
+        try {
+            vertexCount = tokenizer.nextInt();
+            startVertex = tokenizer.nextInt();
+            if (vertexCount < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + vertexCount);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            tokenizer.close();
+            throw e;
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getStartVertex() {
+        return startVertex;
+    }
+
+    /**
+     * Читает оставшиеся рёбра и передаёт их потребителю по одному.
+     * @throws IllegalArgumentException если строка ребра некорректна или номер вершины вне диапазона
+     */
+    public void forEachEdge(EdgeConsumer consumer) throws IOException {
+        while (tokenizer.hasNext()) {
+            int from = tokenizer.nextInt() - 1;
+            int to = tokenizer.nextInt() - 1;
+            int weight = tokenizer.nextInt();
+            if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount) {
+                throw new IllegalArgumentException("Edge %d - %d is out of range [1, %d] at byte %d"
+                        .formatted(from + 1, to + 1, vertexCount, tokenizer.getBytesRead()));
+            }
+            if (weight != 0) {
+                consumer.accept(from, to, weight);
+            }
+        }
+    }
+
+    /**
+     * Читает все рёбра в CSR-представление.
+     */
+    public CsrGraph readGraph() throws IOException {
+        CsrGraph.Builder builder = CsrGraph.builder(vertexCount);
+        forEachEdge(builder::addEdge);
+        return builder.build();
+    }
+
+    public long getBytesRead() {
+        return tokenizer.getBytesRead();
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+    }
+}
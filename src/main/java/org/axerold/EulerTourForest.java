@@ -0,0 +1,466 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Лес эйлеровых обходов: каждое дерево леса хранится как циклическая последовательность своего эйлерова
+ * обхода в splay-дереве. В последовательности у каждой вершины один узел, а у каждого ребра - два
+ * узла-дуги (туда и обратно), поэтому при разрезании ребра одна из частей - это отрезок между его дугами. <br>
+ * Узлы хранят агрегаты по своему splay-поддереву: количество вершин, количество отмеченных рёбер
+ * и наименьший ключ вершины. Поэтому размер дерева, любое отмеченное ребро дерева и наименьший ключ
+ * в дереве находятся за амортизированное O(log V), как и link, cut и проверка связности. <br>
+ * Узел вершины создаётся при первом обращении к ней; вершина без узла - это дерево из одной вершины.
+ * Номера рёбер задаёт вызывающий, по ним лес находит узлы-дуги.
+ */
+final class EulerTourForest {
+    static final long NO_KEY = Long.MAX_VALUE; // ключ вершины, у которой ключа нет
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int[] vertexNode; // узел вершины, либо NONE
+    private int[] arcNode = new int[INITIAL_CAPACITY]; // первая из двух дуг ребра; вторая - следующий узел
+
+    private int[] left = new int[INITIAL_CAPACITY];
+    private int[] right = new int[INITIAL_CAPACITY];
+    private int[] up = new int[INITIAL_CAPACITY]; // предок в splay-дереве, у корня - NONE
+    private int[] edgeOf = new int[INITIAL_CAPACITY]; // ребро узла-дуги, для узла вершины - NONE
+    private int[] vertexOf = new int[INITIAL_CAPACITY]; // вершина узла вершины, для узла-дуги - NONE
+    private boolean[] marked = new boolean[INITIAL_CAPACITY]; // отмечено ли ребро (хранится в первой дуге)
+    private long[] key = new long[INITIAL_CAPACITY]; // ключ узла вершины
+    private int[] vertices = new int[INITIAL_CAPACITY]; // количество вершин в поддереве
+    private int[] marks = new int[INITIAL_CAPACITY]; // количество отмеченных рёбер в поддереве
+    private long[] minKey = new long[INITIAL_CAPACITY]; // наименьший ключ в поддереве
+    private int nodeCount;
+    private int[] freeArcs = new int[INITIAL_CAPACITY]; // освободившиеся пары дуг
+    private int freeArcCount;
+
+    private int[] tour = new int[INITIAL_CAPACITY]; // узлы обхода, собираемого вызовами append
+    private int tourLength;
+
+    EulerTourForest(int vertexCount) {
+        vertexNode = new int[vertexCount];
+        Arrays.fill(vertexNode, NONE);
+    }
+
+    /**
+     * Удаляет все рёбра и ключи.
+     */
+    void clear() {
+        Arrays.fill(vertexNode, NONE);
+        nodeCount = 0;
+        freeArcCount = 0;
+    }
+
+    boolean connected(int u, int v) {
+        if (u == v) {
+            return true;
+        }
+        int a = vertexNode[u];
+        int b = vertexNode[v];
+        if (a == NONE || b == NONE) {
+            return false;
+        }
+        splay(a);
+        splay(b);
+        // если вершины в одном дереве, то после splay(b) узел a перестаёт быть корнем
+        return up[a] != NONE;
+    }
+
+    /**
+     * @return количество вершин в дереве вершины
+     */
+    int size(int vertex) {
+        int node = vertexNode[vertex];
+        if (node == NONE) {
+            return 1;
+        }
+        splay(node);
+        return vertices[node];
+    }
+
+    /**
+     * Соединяет ребром вершины из разных деревьев.
+     * @param mark отметка ребра, см. {@link #findMarked(int)}
+     */
+    void link(int u, int v, int edge, boolean mark) {
+        int arc = newArcs(edge);
+        marked[arc] = mark;
+        update(arc);
+        int first = reroot(nodeOf(u));
+        int second = reroot(nodeOf(v));
+        // обход u, дуга u - v, обход v, дуга v - u
+        join(join(join(first, arc), second), arc + 1);
+    }
+
+    /**
+     * Удаляет ребро из леса.
+     */
+    void cut(int edge) {
+        int first = arcNode[edge];
+        int second = first + 1;
+        splay(second);
+        splay(first);
+        // после двух splay вторая дуга лежит не глубже трёх уровней под первой
+        int child = second;
+        while (up[child] != first) {
+            child = up[child];
+        }
+        boolean secondIsBefore = left[first] == child;
+        int before = detachLeft(first);
+        int after = detachRight(first);
+        splay(second);
+        // обход имеет вид A, дуга, B, дуга, C: отрезок B - одна часть, A и C вместе - другая
+        if (secondIsBefore) {
+            detachRight(second);
+            join(detachLeft(second), after);
+        } else {
+            detachLeft(second);
+            join(before, detachRight(second));
+        }
+        freeArcs = grow(freeArcs, freeArcCount + 1);
+        freeArcs[freeArcCount++] = first;
+    }
+
+    /**
+     * Меняет отметку ребра.
+     */
+    void setMark(int edge, boolean mark) {
+        int arc = arcNode[edge];
+        splay(arc);
+        marked[arc] = mark;
+        update(arc);
+    }
+
+    /**
+     * @return какое-нибудь отмеченное ребро дерева вершины, либо -1
+     */
+    int findMarked(int vertex) {
+        int node = vertexNode[vertex];
+        if (node == NONE) {
+            return NONE;
+        }
+        splay(node);
+        if (marks[node] == 0) {
+            return NONE;
+        }
+        while (!marked[node]) {
+            node = left[node] != NONE && marks[left[node]] > 0 ? left[node] : right[node];
+        }
+        splay(node);
+        return edgeOf[node];
+    }
+
+    /**
+     * @return количество отмеченных рёбер в дереве вершины
+     */
+    int markedCount(int vertex) {
+        int node = vertexNode[vertex];
+        if (node == NONE) {
+            return 0;
+        }
+        splay(node);
+        return marks[node];
+    }
+
+    /**
+     * Переносит в этот лес дерево вершины из леса lower, где это дерево содержит все деревья этого леса
+     * на тех же вершинах: отмеченные рёбра дерева снимаются с отметки в lower и становятся отмеченными
+     * рёбрами этого леса. Дерево собирается заново из эйлерова обхода в lower за время, линейное по его
+     * размеру, что быстрее последовательных link, когда переносится заметная часть рёбер дерева.
+     * @param raised массив для перенесённых рёбер, не меньше {@link #markedCount} дерева в lower
+     * @return количество перенесённых рёбер
+     */
+    int absorb(EulerTourForest lower, int vertex, int[] raised) {
+        int count = 0;
+        int node = lower.vertexNode[vertex];
+        lower.splay(node);
+        while (lower.left[node] != NONE) {
+            node = lower.left[node];
+        }
+        // обход splay-дерева lower в симметричном порядке по ссылкам на предков, без стека
+        while (node != NONE) {
+            int edge = lower.edgeOf[node];
+            if (edge == NONE) {
+                appendNode(nodeOf(lower.vertexOf[node]));
+            } else {
+                int lowerFirst = lower.arcNode[edge];
+                if (lower.marked[lowerFirst]) {
+                    lower.marked[lowerFirst] = false;
+                    int arc = newArcs(edge);
+                    marked[arc] = true;
+                    raised[count++] = edge;
+                }
+                appendNode(node == lowerFirst ? arcNode[edge] : arcNode[edge] + 1);
+            }
+            lower.marks[node] = 0; // в дереве lower не остаётся отмеченных рёбер
+            if (lower.right[node] != NONE) {
+                node = lower.right[node];
+                while (lower.left[node] != NONE) {
+                    node = lower.left[node];
+                }
+            } else {
+                while (lower.up[node] != NONE && lower.right[lower.up[node]] == node) {
+                    node = lower.up[node];
+                }
+                node = lower.up[node];
+            }
+        }
+        build(0, tourLength, NONE);
+        tourLength = 0;
+        return count;
+    }
+
+    /**
+     * Задаёт ключ вершины; {@link #NO_KEY} убирает его.
+     */
+    void setKey(int vertex, long value) {
+        if (value == NO_KEY && vertexNode[vertex] == NONE) {
+            return;
+        }
+        int node = nodeOf(vertex);
+        splay(node);
+        key[node] = value;
+        update(node);
+    }
+
+    /**
+     * @return наименьший ключ среди вершин дерева вершины, либо {@link #NO_KEY}
+     */
+    long minKey(int vertex) {
+        int node = vertexNode[vertex];
+        if (node == NONE) {
+            return NO_KEY;
+        }
+        splay(node);
+        return minKey[node];
+    }
+
+    /**
+     * Добавляет в собираемый обход узел вершины с заданным ключом. Так дерево строится за линейное время,
+     * а не последовательными link: обход задаётся вызовами {@link #appendVertex} и {@link #appendArc}
+     * в порядке обхода в глубину и завершается {@link #finishTour()}. У вершины не должно быть рёбер.
+     */
+    void appendVertex(int vertex, long value) {
+        int node = nodeOf(vertex);
+        key[node] = value;
+        appendNode(node);
+    }
+
+    /**
+     * Добавляет в собираемый обход дугу ребра: первую - при спуске по ребру, вторую - при возврате.
+     * @param mark отметка ребра, учитывается для первой дуги
+     */
+    void appendArc(int edge, boolean first, boolean mark) {
+        int arc;
+        if (first) {
+            arc = newArcs(edge);
+            marked[arc] = mark;
+        } else {
+            arc = arcNode[edge] + 1;
+        }
+        appendNode(arc);
+    }
+
+    /**
+     * Строит дерево из собранного обхода.
+     */
+    void finishTour() {
+        build(0, tourLength, NONE);
+        tourLength = 0;
+    }
+
+    private void appendNode(int node) {
+        tour = grow(tour, tourLength + 1);
+        tour[tourLength++] = node;
+    }
+
+    /**
+     * Строит сбалансированное splay-дерево из отрезка обхода [from, to).
+     * @return корень дерева
+     */
+    private int build(int from, int to, int parent) {
+        if (from >= to) {
+            return NONE;
+        }
+        int middle = (from + to) >>> 1;
+        int node = tour[middle];
+        up[node] = parent;
+        left[node] = build(from, middle, node);
+        right[node] = build(middle + 1, to, node);
+        update(node);
+        return node;
+    }
+
+    private int nodeOf(int vertex) {
+        int node = vertexNode[vertex];
+        if (node == NONE) {
+            node = newNode(NONE);
+            vertexOf[node] = vertex;
+            vertexNode[vertex] = node;
+        }
+        return node;
+    }
+
+    private int newArcs(int edge) {
+        arcNode = grow(arcNode, edge + 1);
+        int arc;
+        if (freeArcCount > 0) {
+            arc = freeArcs[--freeArcCount];
+            reset(arc, edge);
+            reset(arc + 1, edge);
+        } else {
+            arc = newNode(edge);
+            newNode(edge);
+        }
+        arcNode[edge] = arc;
+        return arc;
+    }
+
+    private int newNode(int edge) {
+        if (nodeCount == left.length) {
+            int capacity = nodeCount * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            up = Arrays.copyOf(up, capacity);
+            edgeOf = Arrays.copyOf(edgeOf, capacity);
+            vertexOf = Arrays.copyOf(vertexOf, capacity);
+            marked = Arrays.copyOf(marked, capacity);
+            key = Arrays.copyOf(key, capacity);
+            vertices = Arrays.copyOf(vertices, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+            minKey = Arrays.copyOf(minKey, capacity);
+        }
+        int node = nodeCount++;
+        reset(node, edge);
+        return node;
+    }
+
+    private void reset(int node, int edge) {
+        left[node] = NONE;
+        right[node] = NONE;
+        up[node] = NONE;
+        edgeOf[node] = edge;
+        vertexOf[node] = NONE;
+        marked[node] = false;
+        key[node] = NO_KEY;
+        update(node);
+    }
+
+    /**
+     * Поворачивает обход так, чтобы он начинался с узла.
+     * @return корень дерева с новым обходом
+     */
+    private int reroot(int node) {
+        splay(node);
+        int before = detachLeft(node);
+        return join(node, before);
+    }
+
+    /**
+     * Приписывает последовательность b в конец последовательности a.
+     * @return корень объединённого дерева
+     */
+    private int join(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        int last = a;
+        while (right[last] != NONE) {
+            last = right[last];
+        }
+        splay(last);
+        right[last] = b;
+        up[b] = last;
+        update(last);
+        return last;
+    }
+
+    private int detachLeft(int node) {
+        int child = left[node];
+        if (child != NONE) {
+            left[node] = NONE;
+            up[child] = NONE;
+            update(node);
+        }
+        return child;
+    }
+
+    private int detachRight(int node) {
+        int child = right[node];
+        if (child != NONE) {
+            right[node] = NONE;
+            up[child] = NONE;
+            update(node);
+        }
+        return child;
+    }
+
+    private void update(int node) {
+        int count = edgeOf[node] == NONE ? 1 : 0;
+        int markCount = marked[node] ? 1 : 0;
+        long best = key[node];
+        int child = left[node];
+        if (child != NONE) {
+            count += vertices[child];
+            markCount += marks[child];
+            best = Math.min(best, minKey[child]);
+        }
+        child = right[node];
+        if (child != NONE) {
+            count += vertices[child];
+            markCount += marks[child];
+            best = Math.min(best, minKey[child]);
+        }
+        vertices[node] = count;
+        marks[node] = markCount;
+        minKey[node] = best;
+    }
+
+    private void rotate(int node) {
+        int parent = up[node];
+        int grandparent = up[parent];
+        if (grandparent != NONE) {
+            if (left[grandparent] == parent) {
+                left[grandparent] = node;
+            } else {
+                right[grandparent] = node;
+            }
+        }
+        if (left[parent] == node) {
+            left[parent] = right[node];
+            if (right[node] != NONE) {
+                up[right[node]] = parent;
+            }
+            right[node] = parent;
+        } else {
+            right[parent] = left[node];
+            if (left[node] != NONE) {
+                up[left[node]] = parent;
+            }
+            left[node] = parent;
+        }
+        up[parent] = node;
+        up[node] = grandparent;
+        update(parent);
+        update(node);
+    }
+
+    private void splay(int node) {
+        while (up[node] != NONE) {
+            int parent = up[node];
+            int grandparent = up[parent];
+            if (grandparent != NONE) {
+                boolean zigZig = (left[grandparent] == parent) == (left[parent] == node);
+                rotate(zigZig ? parent : node);
+            }
+            rotate(node);
+        }
+    }
+
+    private static int[] grow(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
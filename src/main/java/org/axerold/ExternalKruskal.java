@@ -0,0 +1,397 @@
+package org.axerold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Алгоритм Краскала во внешней памяти - для графов, рёбра которых не помещаются в оперативную память. <br>
+ * 1. Рёбра читаются из файла списка рёбер ({@link EdgeListReader}) блоками, каждый блок сортируется по весу
+ * и сбрасывается на диск отдельным отсортированным файлом (run). <br>
+ * 2. Если файлов больше, чем можно одновременно читать при заданном бюджете памяти, соседние файлы
+ * предварительно сливаются в более длинные. <br>
+ * 3. Оставшиеся файлы сливаются k-путевым слиянием, и рёбра в порядке возрастания веса проходят через
+ * union-find по вершинам, как в {@link Kruskal}. Рёбра дерева сразу пишутся в выходной файл
+ * ({@link MstWriter#openEdgeList}), так что в памяти не хранятся ни рёбра графа, ни рёбра дерева. <br>
+ * Бюджет памяти покрывает union-find (4 байта на вершину), блок сортировки и буферы чтения при слиянии.
+ * При равных весах рёбра идут в порядке входного файла, поэтому результат детерминирован.
+ */
+@Slf4j
+public final class ExternalKruskal {
+    private static final int RECORD_BYTES = 3 * Integer.BYTES; // вес, u, v
+    private static final int BYTES_PER_SORTED_EDGE = 3 * Integer.BYTES + Long.BYTES; // массивы блока и ключ
+    private static final int MIN_READ_BUFFER = 1 << 13; // наименьший буфер чтения одного файла при слиянии
+    private static final int MAX_READ_BUFFER = 1 << 16;
+    private static final long MIN_BUDGET = 1 << 16;
+
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    /**
+     * Итог работы алгоритма.
+     * @param edgeCount количество рёбер леса
+     * @param totalWeight суммарный вес леса
+     * @param runCount количество отсортированных файлов, сброшенных на диск (0, если все рёбра уместились
+     *                 в память)
+     */
+    public record Summary(int vertexCount, long edgeCount, long totalWeight, int runCount) {}
+
+    /**
+     * @param memoryBudget бюджет памяти в байтах
+     * @param tempDirectory каталог для временных файлов
+     */
+    public ExternalKruskal(long memoryBudget, Path tempDirectory) {
+        if (memoryBudget < MIN_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least %d bytes: %d"
+                    .formatted(MIN_BUDGET, memoryBudget));
+        }
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Строит минимальный остовный лес графа из файла input и записывает его рёбра в output в формате
+     * {@link MstWriter.Format#EDGE_LIST}. Временные файлы удаляются в любом случае.
+     * @throws IllegalArgumentException если файл некорректен или union-find не помещается в бюджет
+     */
+    public Summary run(Path input, Path output) throws IOException {
+        List<Path> temporary = new ArrayList<>(); // все созданные временные файлы
+        try (EdgeListReader reader = new EdgeListReader(input)) {
+            int n = reader.getVertexCount();
+            long available = memoryBudget - (long) n * Integer.BYTES;
+            if (available < MIN_BUDGET) {
+                throw new IllegalArgumentException("Union-find for %d vertices doesn't fit in %d bytes"
+                        .formatted(n, memoryBudget));
+            }
+            List<Path> runs = new ArrayList<>();
+            Chunk chunk = new Chunk((int) Math.min(Integer.MAX_VALUE - 8, available / BYTES_PER_SORTED_EDGE));
+            try {
+                reader.forEachEdge((from, to, weight) -> {
+                    if (chunk.isFull()) {
+                        runs.add(chunk.spill(temporary));
+                    }
+                    chunk.add(from, to, weight);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            log.info("Read {} bytes of edges into {} sorted runs", reader.getBytesRead(), runs.size());
+
+            int[] components = new int[n];
+            Arrays.fill(components, -1);
+            try (MstWriter writer = MstWriter.openEdgeList(output, n, 0)) {
+                Forest forest = new Forest(components, writer);
+                if (runs.isEmpty()) {
+                    chunk.sort();
+                    for (int i = 0; i < chunk.size && !forest.isComplete(); i++) {
+                        int position = (int) chunk.keys[i];
+                        forest.offer(chunk.from[position], chunk.to[position], chunk.weights[position]);
+                    }
+                    return new Summary(n, forest.edges, forest.totalWeight, 0);
+                }
+                if (chunk.size > 0) {
+                    runs.add(chunk.spill(temporary));
+                }
+                chunk.release();
+                // при промежуточном слиянии часть бюджета занимает буфер записи
+                long mergeBudget = Math.max(0, available - MAX_READ_BUFFER);
+                int fanIn = (int) Math.max(2, Math.min(Integer.MAX_VALUE, mergeBudget / MIN_READ_BUFFER));
+                List<Path> remaining = runs;
+                while (remaining.size() > fanIn) {
+                    // сливаются соседние группы файлов, так что порядок рёбер с равными весами сохраняется
+                    List<Path> merged = new ArrayList<>();
+                    for (int i = 0; i < remaining.size(); i += fanIn) {
+                        List<Path> group = remaining.subList(i, Math.min(remaining.size(), i + fanIn));
+                        merged.add(group.size() == 1 ? group.get(0) : mergeToRun(group, mergeBudget, temporary));
+                    }
+                    remaining = merged;
+                }
+                merge(remaining, available, forest);
+                return new Summary(n, forest.edges, forest.totalWeight, runs.size());
+            }
+        } finally {
+            for (Path file : temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Создаёт временный файл для отсортированных рёбер и запоминает его для удаления.
+     */
+    private Path createRun(List<Path> temporary) throws IOException {
+        Path run = Files.createTempFile(tempDirectory, "mst-run-", ".bin");
+        temporary.add(run);
+        return run;
+    }
+
+    /**
+     * Сливает файлы в один отсортированный файл и сразу удаляет исходные.
+     */
+    private Path mergeToRun(List<Path> group, long available, List<Path> temporary) throws IOException {
+        Path merged = createRun(temporary);
+        try (RunWriter writer = new RunWriter(merged)) {
+            merge(group, available, (from, to, weight) -> {
+                writer.write(from, to, weight);
+                return true;
+            });
+        }
+        for (Path run : group) {
+            Files.delete(run);
+        }
+        return merged;
+    }
+
+    /**
+     * k-путевое слияние: рёбра передаются получателю в порядке (вес, номер файла), пока он их принимает.
+     */
+    private static void merge(List<Path> runs, long available, EdgeSink sink) throws IOException {
+        int bufferBytes = (int) Math.max(MIN_READ_BUFFER, Math.min(MAX_READ_BUFFER, available / runs.size()));
+        bufferBytes -= bufferBytes % RECORD_BYTES;
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(Comparator.comparingInt((RunReader r) -> r.weight)
+                .thenComparingInt(r -> r.index));
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i, bufferBytes);
+                readers.add(reader);
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                if (!sink.accept(reader.from, reader.to, reader.weight)) {
+                    return;
+                }
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Получатель отсортированных рёбер.
+     */
+    @FunctionalInterface
+    private interface EdgeSink {
+        /**
+         * @return false, если следующие рёбра не нужны
+         */
+        boolean accept(int from, int to, int weight) throws IOException;
+    }
+
+    /**
+     * Лес Краскала: union-find по вершинам и запись принятых рёбер.
+     */
+    private static final class Forest implements EdgeSink {
+        private final int[] components; // родитель вершины, либо -(размер множества) для корня
+        private final MstWriter writer;
+        private long edges;
+        private long totalWeight;
+
+        Forest(int[] components, MstWriter writer) {
+            this.components = components;
+            this.writer = writer;
+        }
+
+        boolean isComplete() {
+            return edges == components.length - 1L; // граф оказался связным, остальные рёбра не нужны
+        }
+
+        void offer(int from, int to, int weight) throws IOException {
+            int first = find(from);
+            int second = find(to);
+            if (first == second) {
+                return;
+            }
+            if (components[first] > components[second]) { // меньшее множество подвешиваем к большему
+                int swap = first;
+                first = second;
+                second = swap;
+            }
+            components[first] += components[second];
+            components[second] = first;
+            writer.writeEdge(from, to, weight);
+            edges++;
+            totalWeight += weight;
+        }
+
+        @Override
+        public boolean accept(int from, int to, int weight) throws IOException {
+            offer(from, to, weight);
+            return !isComplete();
+        }
+
+        private int find(int vertex) {
+            while (components[vertex] >= 0) {
+                int parent = components[vertex];
+                if (components[parent] >= 0) {
+                    components[vertex] = components[parent]; // сжатие пути делением пополам
+                }
+                vertex = parent;
+            }
+            return vertex;
+        }
+    }
+
+    /**
+     * Блок рёбер в памяти. Сортируются не сами рёбра, а ключи (вес << 32 | позиция): сортировка примитивов
+     * без компаратора, а позиция делает порядок равных весов порядком чтения.
+     */
+    private final class Chunk {
+        private int[] from;
+        private int[] to;
+        private int[] weights;
+        private long[] keys;
+        private int size;
+
+        Chunk(int capacity) {
+            from = new int[capacity];
+            to = new int[capacity];
+            weights = new int[capacity];
+            keys = new long[capacity];
+        }
+
+        boolean isFull() {
+            return size == from.length;
+        }
+
+        void add(int first, int second, int weight) {
+            from[size] = first;
+            to[size] = second;
+            weights[size++] = weight;
+        }
+
+        void sort() {
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) weights[i] << 32 | i;
+            }
+            Arrays.sort(keys, 0, size);
+        }
+
+        /**
+         * Сортирует блок, записывает его в новый временный файл и очищает.
+         */
+        Path spill(List<Path> temporary) {
+            sort();
+            try {
+                Path run = createRun(temporary);
+                try (RunWriter writer = new RunWriter(run)) {
+                    for (int i = 0; i < size; i++) {
+                        int position = (int) keys[i];
+                        writer.write(from[position], to[position], weights[position]);
+                    }
+                }
+                size = 0;
+                return run;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // EdgeConsumer не объявляет исключений
+            }
+        }
+
+        void release() {
+            from = to = weights = null;
+            keys = null;
+        }
+    }
+
+    /**
+     * Запись отсортированного файла: записи (вес, u, v) через буфер.
+     */
+    private static final class RunWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_READ_BUFFER);
+
+        RunWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(int from, int to, int weight) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putInt(weight).putInt(from).putInt(to);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Последовательное чтение отсортированного файла; текущая запись - в полях.
+     */
+    private static final class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int index; // номер файла: при равных весах раньше идут рёбра из файлов с меньшим номером
+        private int weight;
+        private int from;
+        private int to;
+
+        RunReader(Path path, int index, int bufferBytes) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocate(bufferBytes);
+            this.index = index;
+            buffer.flip();
+        }
+
+        /**
+         * Читает следующую запись.
+         * @return false, если файл закончился
+         */
+        boolean next() throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.compact();
+                int read = 0;
+                while (buffer.position() < RECORD_BYTES && read >= 0) { // дочитываем хотя бы одну целую запись
+                    read = channel.read(buffer);
+                }
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    return false;
+                }
+            }
+            weight = buffer.getInt();
+            from = buffer.getInt();
+            to = buffer.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
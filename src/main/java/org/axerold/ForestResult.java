@@ -0,0 +1,74 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Результат построения минимального остовного леса: для каждой компоненты связности - её вершины,
+ * рёбра её дерева и вес. Все данные хранятся в общих примитивных массивах: вершины компоненты c лежат подряд
+ * в массиве vertices на отрезке [componentStart[c], componentStart[c + 1]), а ребро дерева задаётся
+ * предком вершины.
+ */
+public final class ForestResult {
+    private final int[] vertices; // вершины, упорядоченные по компонентам
+    private final int[] componentStart; // начало компоненты в массиве vertices, длина - количество компонент + 1
+    private final int[] parent; // parent[v] - предок вершины v, -1 для корня дерева
+    private final int[] parentWeight; // вес ребра от v до предка
+    private final long[] weights; // вес дерева каждой компоненты
+
+    ForestResult(int[] vertices, int[] componentStart, int[] parent, int[] parentWeight, long[] weights) {
+        this.vertices = vertices;
+        this.componentStart = componentStart;
+        this.parent = parent;
+        this.parentWeight = parentWeight;
+        this.weights = weights;
+    }
+
+    public int getComponentCount() {
+        return weights.length;
+    }
+
+    /**
+     * @return вес дерева компоненты
+     */
+    public long getWeight(int component) {
+        return weights[component];
+    }
+
+    /**
+     * @return суммарный вес леса
+     */
+    public long getTotalWeight() {
+        long total = 0;
+        for (long weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * @return индексы вершин компоненты по возрастанию
+     */
+    public int[] getVertices(int component) {
+        return Arrays.copyOfRange(vertices, componentStart[component], componentStart[component + 1]);
+    }
+
+    /**
+     * Передаёт потребителю все рёбра дерева компоненты в виде (вершина, предок, вес).
+     */
+    public void forEachTreeEdge(int component, EdgeConsumer consumer) {
+        for (int k = componentStart[component]; k < componentStart[component + 1]; k++) {
+            int vertex = vertices[k];
+            if (parent[vertex] >= 0) {
+                consumer.accept(vertex, parent[vertex], parentWeight[vertex]);
+            }
+        }
+    }
+
+    public int[] getParent() {
+        return parent;
+    }
+
+    public int[] getParentWeight() {
+        return parentWeight;
+    }
+}
@@ -1,15 +1,18 @@
 package org.axerold;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
 // предупреждений и взаимодействия с пользователем
 
 /**
  * Граф создаётся из матрицы весов.
- * В самом графе хранятся списки вершин и рёбер.
- * Выход можно получить как в виде матрицы весов,
- * так и в виде статистики.
+ * Рёбра графа хранятся в компактном виде CSR (см. {@link CsrGraph}), по которому и работает алгоритм Прима.
+ * Списки объектов Vertex и Edge строятся лениво, только если их запросили через геттеры.
+ * Выход можно получить в компактном виде {@link MstResult}, в виде матрицы весов
+ * или в виде статистики.
  */
 @Slf4j
 @SuppressWarnings("unused")
@@ -17,162 +20,204 @@ public class Graph {
     private final int[][] initMatrix; // изначальная матрица весов, которой задаётся граф
     private int[][] mstMatrix; // mst - minimum spanning tree, матрица, полученная в результате работы алгоритма
 
-    private int mstWeight; // вес минимального остовного дерева
+    private long mstWeight; // вес минимального остовного дерева
     private boolean isValid = true; // маркер корректности графа (true - неориентированный и без петель)
     private boolean isConnected = true; // маркер связности графа. Если не связный, то на выходе получается лес
     // минимальных остовных деревьев
 
-    private final List<Edge> edges = new ArrayList<>(); // список рёбер
-    private final List<Vertex> vertices = new ArrayList<>(); // список вершин
+    private SparseGraph csrGraph; // рёбра графа в формате CSR
+    private int[] componentIds; // componentIds[v] - номер компоненты связности, в которой лежит вершина v
+    private int componentCount; // количество компонент связности
+    private MstResult mstResult; // результат работы алгоритма в виде массива предков, задаётся алгоритмом
 
-    /**
-     * Для проверки на ориентированность
-     * достаточно посмотреть, является ли матрица симметричной
-     */
-    private boolean isOriented() {
-        for (int i = 0; i < initMatrix.length; i++) {
-            for (int j = 0; j < i; j++) {
-                if (initMatrix[i][j] != initMatrix[j][i]) {
-                    log.error("Oriented graph is unacceptable");
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
+    private List<Edge> edges; // список рёбер, создаётся по запросу
+    private List<Vertex> vertices; // список вершин, создаётся по запросу
 
     /**
-     * А для проверки на содержание петель
-     * достаточно проверить главную диагональ матрицы
-     * на наличие ненулевых элементов
+     * Итеративный обход в глубину по спискам смежности CSR с явным стеком.
+     * Каждая непосещённая вершина (в порядке возрастания индекса) открывает новую компоненту связности,
+     * и все достижимые из неё вершины получают её номер. Рекурсии нет, поэтому длинные пути не
+     * переполняют стек, а каждая вершина и каждое ребро рассматриваются один раз: O(V + E).
      */
-    private boolean containsLoops() {
-        for (int i = 0; i < initMatrix.length; i++) {
-            if (initMatrix[i][i] != 0) {
-                log.error("Loops are unacceptable");
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Рекурсивный обход в глубину,
-     * реализован через списки
-     * @param visited посещённые вершины. В течение обхода обновляется
-     * @param notVisited список изначально непосещённых вершин. Не обновляется.
-     * @param index индекс вершины, введён для рекурсивного обхода
-     */
-    private void dfs(List<Vertex> visited, List<Vertex> notVisited, int index) {
-        visited.add(notVisited.get(index));
-        for (var v: notVisited.get(index).getAdjacentVertices()) {
-            if (!visited.contains(v)) {
-                dfs(visited, notVisited, v.getNumber() - 1); // вершины нумеруются натуральными числами, поэтому
-                // для получения вершины по номеру из списка, нужно отнять единицу
+    private void labelComponents() {
+        int n = csrGraph.getVertexCount();
+        int[] labels = new int[n];
+        BitSet visited = new BitSet(n);
+        int[] stack = new int[n]; // вершина кладётся в стек один раз - при первом посещении
+        int count = 0;
+        for (int root = visited.nextClearBit(0); root < n; root = visited.nextClearBit(root + 1)) {
+            int top = 0;
+            stack[top++] = root;
+            visited.set(root);
+            while (top > 0) {
+                int vertex = stack[--top];
+                labels[vertex] = count;
+                for (int e = csrGraph.edgesBegin(vertex); e < csrGraph.edgesEnd(vertex); e++) {
+                    int adjacent = csrGraph.getTarget(e);
+                    if (!visited.get(adjacent)) {
+                        visited.set(adjacent);
+                        stack[top++] = adjacent;
+                    }
+                }
             }
+            count++;
         }
+        componentIds = labels;
+        componentCount = count;
     }
 
     /**
-     * Проверяем граф на связность.
+     * Проверяем граф на связность, попутно размечая компоненты связности.
      * Для несвязных графов алгоритм
      * не сильно меняется, но пользователь всё
      * равно будет предупреждён о том, что
      * ввёл матрицу несвязного графа.
+     * Видна в пакете, чтобы её можно было измерить в бенчмарках.
      */
-    private boolean isConnected() {
-        List<Vertex> visited = new ArrayList<>();
-        List<Vertex> notVisited = new ArrayList<>(vertices);
-        dfs(visited, notVisited, 0); // так как алгоритм применим только к неориентированным графам, то
-        // достаточно одного обхода из любой вершины, что сделать вывод о связности.
-        isConnected = visited.size() == notVisited.size();
+    final boolean isConnected() {
+        labelComponents();
+        isConnected = componentCount <= 1;
         return isConnected;
     }
 
     /**
-     * Эта функция вызывается первой в конструкторе, в ней мы просто объявим набор вершин, без указания рёбер.
-     * @throws IllegalArgumentException в случае, если матрица не квадратная, или не симметрическая,
-     * или на главной диагонали есть ненулевые элементы
+     * Создаёт объекты вершин и рёбер по CSR. Порядок рёбер такой же, как при обходе нижнего треугольника
+     * матрицы весов. Если MST уже построено, рёбра сразу помечаются как принадлежащие дереву.
      */
-    private void initVertices() throws IllegalArgumentException {
-        if (initMatrix.length != initMatrix[0].length || isOriented() || containsLoops()) {
-            throw new IllegalArgumentException();
-        }
-        for (int i = 0; i < initMatrix.length; i++) {
-            vertices.add(new Vertex(i + 1));
+    private void materialize() {
+        int n = getVertexCount();
+        List<Vertex> vertexList = new ArrayList<>(n);
+        List<Edge> edgeList = new ArrayList<>(csrGraph == null ? 0 : csrGraph.getEdgeCount());
+        for (int i = 0; i < n; i++) {
+            vertexList.add(new Vertex(i + 1));
         }
-    }
-
-    /**
-     * В случае, если инициализация вершин прошла успешно,
-     * то по матрице объявляем рёбра, а также передаём ссылки
-     * на них в соответствующие вершины.
-     */
-    private void initEdges() {
-        Edge edge;
-        for (int i = 0; i < initMatrix.length; i++) {
-            for (int j = 0; j < i; j++) {
-                if (initMatrix[i][j] != 0) {
-                    edge = new Edge(vertices.get(i), vertices.get(j), initMatrix[i][j]);
-                    edges.add(edge);
-                    vertices.get(i).addEdge(edge);
-                    vertices.get(j).addEdge(edge);
+        for (int i = 0; i < n; i++) {
+            for (int e = csrGraph.edgesBegin(i); e < csrGraph.edgesEnd(i); e++) {
+                int j = csrGraph.getTarget(e);
+                if (j < i) {
+                    Edge edge = new Edge(vertexList.get(i), vertexList.get(j), csrGraph.getWeight(e));
+                    edge.setBelongsToTree(mstResult != null
+                            && (mstResult.getParent(i) == j || mstResult.getParent(j) == i));
+                    edgeList.add(edge);
+                    vertexList.get(i).addEdge(edge);
+                    vertexList.get(j).addEdge(edge);
                 }
             }
         }
-
+        vertices = vertexList;
+        edges = edgeList;
     }
 
     /**
-     * Конструктор класса. Помимо вызова функций задания вершин и рёбер, в нём также обрабатываются
+     * Конструктор класса. Матрица проверяется (квадратность, симметричность, отсутствие петель) и переводится
+     * в CSR за один параллельный проход, см. {@link MatrixScanner}. Здесь же обрабатываются
      * все исключения и отдельно обрабатывается случай несвязного графа.
      * @param initMatrix входная матрица весов. Задаётся пользователем в тесте или в файле input.txt
      */
     public Graph(int[][] initMatrix) {
+        long start = MstMetrics.startStage();
         this.initMatrix = initMatrix.clone();
         try {
-            initVertices();
-        } catch (IllegalArgumentException exception) {
+            csrGraph = MatrixScanner.scan(this.initMatrix);
+        } catch (InvalidGraphException exception) {
             isValid = false;
-            log.error("Incorrect size of weighted matrix or incorrect type of graph");
+            log.error("Incorrect size of weighted matrix or incorrect type of graph: {}", exception.getMessage());
         }
         if (isValid) {
-            initEdges();
             if (!isConnected()) {
-                log.warn("Graph is not connected. In the end of algorithm you'll retrieve a forest"
-                        + " of minimum spanning trees");
+                log.warn("Graph is not connected ({} components). In the end of algorithm you'll retrieve a forest"
+                        + " of minimum spanning trees", componentCount);
             }
         }
+        MstMetrics.endStage(MstMetrics.Stage.VALIDATION, start, csrGraph == null ? 0 : csrGraph.getVertexCount(),
+                csrGraph == null ? 0 : csrGraph.getEdgeCount());
+    }
+
+    /**
+     * Конструктор для графа, уже представленного в формате CSR (например, прочитанного из списка рёбер
+     * или отображённого в память из бинарного файла).
+     * Матрица весов в этом случае не создаётся, и {@link #getInitMatrix()} возвращает null.
+     * @param csrGraph рёбра графа
+     */
+    public Graph(SparseGraph csrGraph) {
+        long start = MstMetrics.startStage();
+        this.initMatrix = null;
+        this.csrGraph = csrGraph;
+        if (!isConnected()) {
+            log.warn("Graph is not connected ({} components). In the end of algorithm you'll retrieve a forest"
+                    + " of minimum spanning trees", componentCount);
+        }
+        MstMetrics.endStage(MstMetrics.Stage.VALIDATION, start, csrGraph.getVertexCount(), csrGraph.getEdgeCount());
     }
 
     /**
      * Функция вызывается по факту окончания работы алгоритма (можно вызвать и без него, но она просто вернёт
-     * нулевую матрицу). Составляет матрицу весов полученного дерева (или леса) по рёбрам, отмеченным алгоритмом.
-     * Сразу подсчитывает и вес полученного дерева (леса).
-     * @return matrix - сразу возвращает новую матрицу весов. Используется только в тестах.
+     * нулевую матрицу). Оставлена для совместимости: матрица строится по {@link MstResult#toMatrix()}
+     * заново при каждом вызове и занимает V x V ячеек, поэтому для больших графов следует пользоваться
+     * {@link #getMstResult()}. Сразу подсчитывает и вес полученного дерева (леса).
+     * @return matrix - матрица весов дерева. Используется только в тестах.
      */
     public int[][] retrieveModifiedWeightMatrix() {
         if (!isValid) {
             return null;
         }
-        int[][] matrix = new int[vertices.size()][vertices.size()];
-        for (int i = 0; i < vertices.size(); i++) {
-            for (int j = 0; j < i; j++) {
-                if (initMatrix[i][j] != 0) {
-                    matrix[i][j] = (vertices.get(i).getEdgeByAdjacentVertex(vertices.get(j)).doesBelongToTree()
-                            ? initMatrix[i][j]
-                            : 0);
-                    mstWeight += matrix[i][j];
-                    matrix[j][i] = matrix[i][j];
+        if (mstResult == null) {
+            mstWeight = 0;
+            mstMatrix = new int[getVertexCount()][getVertexCount()];
+        } else {
+            mstWeight = mstResult.getTotalWeight();
+            mstMatrix = mstResult.toMatrix();
+        }
+        return mstMatrix;
+    }
+
+    /**
+     * Вызывается алгоритмом по окончании работы. Дерево (лес) задаётся массивом предков:
+     * для каждой вершины указывается предок в MST и вес ребра до него.
+     * @param parent parent[v] - индекс предка вершины v, либо -1 для корня дерева
+     * @param weight weight[v] - вес ребра от v до предка
+     */
+    public void setSpanningForest(int[] parent, int[] weight) {
+        setSpanningForest(new MstResult(parent, weight));
+    }
+
+    /**
+     * То же, что {@link #setSpanningForest(int[], int[])}, для уже готового результата,
+     * например, полученного из {@link DynamicMst}.
+     */
+    public void setSpanningForest(MstResult result) {
+        mstResult = result;
+        mstMatrix = null;
+        if (edges != null) {
+            for (var vertex : vertices) {
+                for (var edge : vertex.getAdjacentEdges()) {
+                    int i = vertex.getNumber() - 1;
+                    int j = edge.getAnotherVertex(vertex).getNumber() - 1;
+                    edge.setBelongsToTree(result.getParent(i) == j || result.getParent(j) == i);
                 }
             }
         }
-        mstMatrix = matrix;
-        return matrix;
     }
 
+    /**
+     * Тип результата оставлен прежним ради совместимости; полный вес без переполнения -
+     * {@link MstResult#getTotalWeight()}.
+     * @throws ArithmeticException если вес дерева не помещается в int
+     */
     public int getMinimalSpanningTreeSummaryWeight() {
-        return mstWeight;
+        return Math.toIntExact(mstWeight);
+    }
+
+    /**
+     * Вес каждого дерева леса: индекс массива - номер компоненты связности (см. {@link #getComponentIds()}).
+     * Для связного графа массив состоит из одного элемента - веса MST. До запуска алгоритма веса нулевые.
+     */
+    public long[] getComponentWeights() {
+        long[] weights = new long[componentCount];
+        if (mstResult != null) {
+            mstResult.forEachEdge((vertex, parent, weight) -> weights[componentIds[vertex]] += weight);
+        }
+        return weights;
     }
 
     /**
@@ -180,16 +225,21 @@ public class Graph {
      * @param stringBuilder - уже рабочий экземпляр класса StringBuilder с некоторой информацией о графе.
      */
     private void matrixToString(StringBuilder stringBuilder) {
-        for (var matrix : mstMatrix) {
-            StringBuilder rowBuilder = new StringBuilder();
-            for (int j = 0; j < mstMatrix.length; j++) {
-                if (j == mstMatrix.length - 1) {
-                    rowBuilder.append("%d\n".formatted(matrix[j]));
-                } else {
-                    rowBuilder.append("%d ".formatted(matrix[j]));
-                }
+        for (var row : mstMatrix) {
+            for (int j = 0; j < row.length; j++) {
+                stringBuilder.append(row[j]).append(j == row.length - 1 ? '\n' : ' ');
             }
-            stringBuilder.append(rowBuilder);
+        }
+    }
+
+    /**
+     * Вспомогательная функция для представления дерева списком рёбер "u v w" (вершины нумеруются с единицы).
+     * Используется, если матрица весов дерева не строилась.
+     */
+    private void edgesToString(StringBuilder stringBuilder) {
+        if (mstResult != null) {
+            mstResult.forEachEdge((vertex, parent, weight) -> stringBuilder.append(vertex + 1).append(' ')
+                    .append(parent + 1).append(' ').append(weight).append('\n'));
         }
     }
 
@@ -200,44 +250,103 @@ public class Graph {
      */
     @Override
     public String toString() {
-        StringBuilder stringBuilder = new StringBuilder();
+        StringBuilder stringBuilder = new StringBuilder(getSummary());
         if (isValid) {
-            if (isConnected) {
-                stringBuilder.append("Summary weight of minimum spanning tree - %d\nMinimum Spanning Tree:\n"
-                        .formatted(mstWeight));
+            if (mstMatrix != null) {
+                matrixToString(stringBuilder);
             } else {
-                stringBuilder.append("Summary weight of forest - %d\nForest of MST:\n"
-                        .formatted(mstWeight));
+                edgesToString(stringBuilder);
             }
-            matrixToString(stringBuilder);
-        } else {
-            stringBuilder.append("Current graph doesn't satisfy Prim algorithm's requirements, "
-                    + "therefore it cannot find MST");
         }
         return stringBuilder.toString();
     }
 
+    /**
+     * @return заголовок вывода без самого дерева: вес дерева (леса) либо сообщение о некорректном графе.
+     * Используется в {@link #toString()} и в {@link MstWriter}.
+     */
+    String getSummary() {
+        if (!isValid) {
+            return "Current graph doesn't satisfy Prim algorithm's requirements, therefore it cannot find MST";
+        }
+        long weight = mstResult == null ? 0 : mstResult.getTotalWeight();
+        if (isConnected) {
+            return "Summary weight of minimum spanning tree - %d\nMinimum Spanning Tree:\n".formatted(weight);
+        }
+        return "Summary weight of forest - %d\nWeights of trees - %s\nForest of MST:\n"
+                .formatted(weight, Arrays.toString(getComponentWeights()));
+    }
+
     /**
      * Все последующие функции - обычные геттеры.
      */
 
     public List<Vertex> getVertices() {
+        if (vertices == null) {
+            materialize();
+        }
         return vertices;
     }
 
+    /**
+     * @return количество вершин; 0, если граф некорректен.
+     */
+    public int getVertexCount() {
+        return csrGraph == null ? 0 : csrGraph.getVertexCount();
+    }
+
+    /**
+     * @return плотность графа - доля имеющихся рёбер от максимально возможного числа V(V-1)/2
+     */
+    public double getDensity() {
+        int n = getVertexCount();
+        return n < 2 ? 0 : 2.0 * csrGraph.getEdgeCount() / ((double) n * (n - 1));
+    }
+
+    public SparseGraph getCsrGraph() {
+        return csrGraph;
+    }
+
 
     public boolean isValid() {
         return isValid;
     }
 
+    /**
+     * @return номера компонент связности вершин. Компоненты нумеруются с нуля в порядке наименьшей вершины.
+     */
+    public int[] getComponentIds() {
+        return componentIds;
+    }
+
+    /**
+     * @return количество компонент связности; 0 для некорректного графа
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
     public List<Edge> getEdges() {
+        if (edges == null) {
+            materialize();
+        }
         return edges;
     }
 
+    /**
+     * @return исходная матрица весов, либо null, если граф построен не по матрице
+     */
     public int[][] getInitMatrix() {
         return initMatrix;
     }
 
+    /**
+     * @return результат работы алгоритма, либо null, если алгоритм ещё не запускался
+     */
+    public MstResult getMstResult() {
+        return mstResult;
+    }
+
     public int[][] getMstMatrix() {
         return mstMatrix;
     }
@@ -0,0 +1,131 @@
+package org.axerold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Потоковое чтение целых чисел, разделённых пробельными символами, из канала.
+ * Файл читается блоками в один и тот же direct ByteBuffer, а числа собираются по цифрам прямо из буфера,
+ * так что ни строк, ни массивов на каждое число или строку файла не создаётся, а в памяти в каждый момент
+ * находится только один блок файла.
+ */
+public final class IntTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long bytesConsumed; // количество байт в уже прочитанных блоках, нужно для сообщений об ошибках
+
+    public IntTokenizer(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    /**
+     * Открывает файл. Если имя файла оканчивается на .gz, содержимое распаковывается на лету.
+     */
+    public static IntTokenizer open(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".gz")) {
+            return new IntTokenizer(Channels.newChannel(
+                    new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE)));
+        }
+        return new IntTokenizer(FileChannel.open(path));
+    }
+
+    /**
+     * Пропускает пробельные символы.
+     * @return true, если во входных данных осталось хотя бы одно число
+     */
+    public boolean hasNext() throws IOException {
+        while (fill()) {
+            byte b = buffer.get(buffer.position());
+            if (!isWhitespace(b)) {
+                return true;
+            }
+            buffer.position(buffer.position() + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Читает очередное число.
+     * @throws IllegalArgumentException если данные закончились, встретился посторонний символ
+     * или число не помещается в int
+     */
+    public int nextInt() throws IOException {
+        if (!hasNext()) {
+            throw new IllegalArgumentException("Unexpected end of input at byte " + getBytesRead());
+        }
+        boolean negative = buffer.get(buffer.position()) == '-';
+        if (negative) {
+            buffer.position(buffer.position() + 1);
+        }
+        long value = 0;
+        int digits = 0;
+        while (fill()) {
+            byte b = buffer.get(buffer.position());
+            if (b < '0' || b > '9') {
+                if (!isWhitespace(b)) {
+                    throw new IllegalArgumentException("Unexpected character '%c' at byte %d"
+                            .formatted((char) b, getBytesRead()));
+                }
+                break;
+            }
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new IllegalArgumentException("Number is too large at byte " + getBytesRead());
+            }
+            buffer.position(buffer.position() + 1);
+            digits++;
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Number expected at byte " + getBytesRead());
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number is too large at byte " + getBytesRead());
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return количество байт, прочитанных на данный момент (после распаковки, если файл сжат)
+     */
+    public long getBytesRead() {
+        return bytesConsumed + buffer.position();
+    }
+
+    /**
+     * Подчитывает следующий блок, если текущий закончился.
+     * @return false, если данные закончились
+     */
+    private boolean fill() throws IOException {
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        bytesConsumed += buffer.limit();
+        buffer.clear();
+        int read = 0;
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+        buffer.flip();
+        return read > 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,32 @@
+package org.axerold;
+
+/**
+ * Матрица весов не задаёт допустимый для алгоритма граф. В отличие от голого IllegalArgumentException,
+ * сообщает, в какой ячейке матрицы найдена ошибка.
+ */
+public class InvalidGraphException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int row;
+    private final int column;
+
+    public InvalidGraphException(String message, int row, int column) {
+        super(message);
+        this.row = row;
+        this.column = column;
+    }
+
+    /**
+     * @return строка ошибочной ячейки (с нуля)
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return столбец ошибочной ячейки (с нуля)
+     */
+    public int getColumn() {
+        return column;
+    }
+}
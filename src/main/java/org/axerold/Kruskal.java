@@ -0,0 +1,181 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Алгоритм Краскала: рёбра перебираются по возрастанию веса, и ребро добавляется в лес,
+ * если соединяет разные компоненты. Компоненты хранятся в системе непересекающихся множеств (union-find)
+ * на массивах int со сжатием путей и объединением по размеру. <br>
+ * Рёбра сортируются как упакованные в long пары (вес, номер ребра) параллельной сортировкой
+ * Arrays.parallelSort, без объектов и компараторов. Для разреженных графов это быстрее Прима на куче. <br>
+ * В режиме filter-Kruskal рёбра сортируются не целиком: массив делится по опорному элементу,
+ * лёгкая часть обрабатывается рекурсивно, а из тяжёлой перед сортировкой выбрасываются рёбра,
+ * концы которых уже оказались в одной компоненте.
+ */
+public class Kruskal implements MstEngine {
+    private static final int FILTER_THRESHOLD = 1 << 12; // меньшие отрезки сортируются целиком
+
+    private final Graph graph;
+    private final boolean filter; // режим filter-Kruskal
+
+    private EdgeList edges;
+    private int[] components; // components[v] - родитель v в union-find
+    private int[] sizes; // размер компоненты для корней
+    private boolean[] inForest;
+    private int forestSize; // количество рёбер, уже добавленных в лес
+    private long relaxed; // просмотры рёбер для MstMetrics
+
+    public Kruskal(Graph graph) {
+        this(graph, false);
+    }
+
+    public Kruskal(Graph graph, boolean filter) {
+        this.graph = graph;
+        this.filter = filter;
+    }
+
+    /**
+     * Без заданной стартовой вершины выбирается случайная вершина графа. Она определяет только корень
+     * дерева в массиве предков.
+     */
+    @Override
+    public void run() {
+        int vertexIndex = (int) (Math.random() * graph.getVertexCount());
+        run(vertexIndex);
+    }
+
+    /**
+     * @param startVertex корень дерева в полученном массиве предков
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    @Override
+    public void run(int startVertex) {
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+        edges = EdgeList.of(graph.getCsrGraph());
+        components = new int[n];
+        sizes = new int[n];
+        for (int v = 0; v < n; v++) {
+            components[v] = v;
+            sizes[v] = 1;
+        }
+        inForest = new boolean[edges.size()];
+        forestSize = 0;
+        relaxed = 0;
+
+        long[] keys = new long[edges.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) edges.getWeight(i) << 32) | i;
+        }
+        if (filter) {
+            filterKruskal(keys, 0, keys.length);
+        } else {
+            Arrays.parallelSort(keys);
+            scan(keys, 0, keys.length);
+        }
+        MstMetrics.recordEngine(0, 0, relaxed, 0);
+
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        edges.orientForest(inForest, startVertex, parent, parentWeight);
+        graph.setSpanningForest(parent, parentWeight);
+    }
+
+    /**
+     * Основной проход Краскала по уже отсортированному отрезку. Останавливается, как только в лесе V - 1 ребро.
+     */
+    private void scan(long[] keys, int from, int to) {
+        int maxForestSize = components.length - 1;
+        int k = from;
+        for (; k < to && forestSize < maxForestSize; k++) {
+            int edge = (int) keys[k];
+            if (union(edges.getFirst(edge), edges.getSecond(edge))) {
+                inForest[edge] = true;
+                forestSize++;
+            }
+        }
+        relaxed += k - from;
+    }
+
+    private void filterKruskal(long[] keys, int from, int to) {
+        if (forestSize == components.length - 1) {
+            return; // дерево уже построено, оставшиеся рёбра не нужны
+        }
+        if (to - from <= FILTER_THRESHOLD) {
+            Arrays.sort(keys, from, to);
+            scan(keys, from, to);
+            return;
+        }
+        long pivot = medianOfThree(keys[from], keys[(from + to) >>> 1], keys[to - 1]);
+        int split = partition(keys, from, to, pivot);
+        filterKruskal(keys, from, split);
+        int end = filterHeavy(keys, split, to);
+        filterKruskal(keys, split, end);
+    }
+
+    /**
+     * Переставляет ключи так, что не превосходящие pivot оказываются в начале отрезка.
+     * Ключи различны (в младших битах номер ребра), поэтому pivot - медиана трёх - попадает в левую часть,
+     * а наибольший из трёх - в правую, и обе части непусты.
+     * @return начало правой части
+     */
+    private static int partition(long[] keys, int from, int to, long pivot) {
+        int left = from;
+        int right = to - 1;
+        while (left <= right) {
+            if (keys[left] <= pivot) {
+                left++;
+            } else {
+                long key = keys[left];
+                keys[left] = keys[right];
+                keys[right--] = key;
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Сдвигает в начало отрезка рёбра, соединяющие разные компоненты; остальные уже не нужны.
+     * @return конец сжатого отрезка
+     */
+    private int filterHeavy(long[] keys, int from, int to) {
+        relaxed += to - from;
+        int end = from;
+        for (int k = from; k < to; k++) {
+            int edge = (int) keys[k];
+            if (find(edges.getFirst(edge)) != find(edges.getSecond(edge))) {
+                keys[end++] = keys[k];
+            }
+        }
+        return end;
+    }
+
+    private static long medianOfThree(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private int find(int vertex) {
+        while (components[vertex] != vertex) {
+            components[vertex] = components[components[vertex]]; // сжатие пути вдвое
+            vertex = components[vertex];
+        }
+        return vertex;
+    }
+
+    private boolean union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+        if (sizes[firstRoot] < sizes[secondRoot]) {
+            int root = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = root;
+        }
+        components[secondRoot] = firstRoot;
+        sizes[firstRoot] += sizes[secondRoot];
+        return true;
+    }
+}
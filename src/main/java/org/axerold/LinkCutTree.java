@@ -0,0 +1,234 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Лес link-cut деревьев (Слейтор - Тарьян) с поиском максимума на пути. <br>
+ * Узлы - это индексы [0, capacity). Узлы, меньшие vertexCount, - вершины графа, остальные - рёбра:
+ * ребро u - v хранится отдельным узлом e, связанным с u и v, и только у узлов-рёбер есть вес.
+ * Так максимум на пути между вершинами - это максимум по рёбрам пути; при равных весах больше ребро
+ * с большим рангом. <br>
+ * Вспомогательные splay-деревья хранятся в массивах, все операции итеративные и выполняются
+ * за амортизированное O(log V).
+ */
+public final class LinkCutTree {
+    private static final int NONE = -1;
+
+    private final int vertexCount;
+    private final int[] left; // левый потомок в splay-дереве
+    private final int[] right; // правый потомок в splay-дереве
+    private final int[] up; // предок в splay-дереве, либо path-parent для корня splay-дерева
+    private final boolean[] flipped; // отложенный разворот поддерева
+    private final int[] weights; // вес узла-ребра
+    private final int[] ranks; // ранг узла-ребра, различает рёбра с равными весами
+    private final int[] maxNode; // узел-ребро с наибольшим весом в splay-поддереве, либо NONE
+    private final int[] stack; // для проталкивания отложенных разворотов перед splay
+
+    /**
+     * @param vertexCount количество узлов-вершин
+     * @param capacity общее количество узлов, включая узлы-рёбра
+     */
+    public LinkCutTree(int vertexCount, int capacity) {
+        this.vertexCount = vertexCount;
+        left = new int[capacity];
+        right = new int[capacity];
+        up = new int[capacity];
+        flipped = new boolean[capacity];
+        weights = new int[capacity];
+        ranks = new int[capacity];
+        maxNode = new int[capacity];
+        stack = new int[capacity];
+        Arrays.fill(left, NONE);
+        Arrays.fill(right, NONE);
+        Arrays.fill(up, NONE);
+        Arrays.fill(maxNode, NONE);
+    }
+
+    /**
+     * Подготавливает изолированный узел-ребро с заданным весом; ранг ребра - номер его узла.
+     * Узел не должен быть связан с другими.
+     */
+    public void initEdge(int edge, int weight) {
+        initEdge(edge, weight, edge);
+    }
+
+    /**
+     * Подготавливает изолированный узел-ребро с заданными весом и рангом. Узел не должен быть связан с другими.
+     */
+    public void initEdge(int edge, int weight, int rank) {
+        left[edge] = NONE;
+        right[edge] = NONE;
+        up[edge] = NONE;
+        flipped[edge] = false;
+        weights[edge] = weight;
+        ranks[edge] = rank;
+        maxNode[edge] = edge;
+    }
+
+    /**
+     * Меняет вес узла-ребра, не меняя структуры леса.
+     */
+    public void setWeight(int edge, int weight) {
+        access(edge);
+        weights[edge] = weight;
+        update(edge);
+    }
+
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Соединяет корень дерева узла a с узлом b. Узлы должны лежать в разных деревьях.
+     */
+    public void link(int a, int b) {
+        makeRoot(a);
+        up[a] = b;
+    }
+
+    /**
+     * Удаляет ребро между соседними узлами a и b.
+     */
+    public void cut(int a, int b) {
+        makeRoot(a);
+        access(b);
+        // после access(b) путь a - b лежит в splay-дереве b, и a - его единственный левый узел
+        left[b] = NONE;
+        up[a] = NONE;
+        update(b);
+    }
+
+    public boolean connected(int a, int b) {
+        return a == b || findRoot(a) == findRoot(b);
+    }
+
+    /**
+     * @return узел-ребро с наибольшим весом на пути между a и b (при равных весах - с наибольшим рангом),
+     * либо -1, если путь не содержит рёбер или узлы лежат в разных деревьях
+     */
+    public int pathMax(int a, int b) {
+        makeRoot(a);
+        if (findRoot(b) != a) {
+            return NONE;
+        }
+        // после findRoot(b) путь a - b - это всё splay-дерево с корнем a
+        return maxNode[a];
+    }
+
+    private int findRoot(int node) {
+        access(node);
+        int root = node;
+        push(root);
+        while (left[root] != NONE) {
+            root = left[root];
+            push(root);
+        }
+        splay(root);
+        return root;
+    }
+
+    private void makeRoot(int node) {
+        access(node);
+        flipped[node] ^= true;
+    }
+
+    /**
+     * Делает путь от корня дерева до узла предпочтительным; узел становится корнем своего splay-дерева.
+     */
+    private void access(int node) {
+        int last = NONE;
+        for (int current = node; current != NONE; current = up[current]) {
+            splay(current);
+            right[current] = last;
+            update(current);
+            last = current;
+        }
+        splay(node);
+    }
+
+    private boolean isSplayRoot(int node) {
+        int parent = up[node];
+        return parent == NONE || (left[parent] != node && right[parent] != node);
+    }
+
+    private void push(int node) {
+        if (flipped[node]) {
+            int child = left[node];
+            left[node] = right[node];
+            right[node] = child;
+            if (left[node] != NONE) {
+                flipped[left[node]] ^= true;
+            }
+            if (right[node] != NONE) {
+                flipped[right[node]] ^= true;
+            }
+            flipped[node] = false;
+        }
+    }
+
+    private void update(int node) {
+        int best = node < vertexCount ? NONE : node;
+        best = heavier(best, left[node] == NONE ? NONE : maxNode[left[node]]);
+        best = heavier(best, right[node] == NONE ? NONE : maxNode[right[node]]);
+        maxNode[node] = best;
+    }
+
+    private int heavier(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE || weights[a] > weights[b]) {
+            return a;
+        }
+        return weights[a] == weights[b] && ranks[a] > ranks[b] ? a : b;
+    }
+
+    private void rotate(int node) {
+        int parent = up[node];
+        int grandparent = up[parent];
+        if (!isSplayRoot(parent)) {
+            if (left[grandparent] == parent) {
+                left[grandparent] = node;
+            } else {
+                right[grandparent] = node;
+            }
+        }
+        if (left[parent] == node) {
+            left[parent] = right[node];
+            if (right[node] != NONE) {
+                up[right[node]] = parent;
+            }
+            right[node] = parent;
+        } else {
+            right[parent] = left[node];
+            if (left[node] != NONE) {
+                up[left[node]] = parent;
+            }
+            left[node] = parent;
+        }
+        up[parent] = node;
+        up[node] = grandparent;
+        update(parent);
+        update(node);
+    }
+
+    private void splay(int node) {
+        int top = 0;
+        stack[top++] = node;
+        for (int current = node; !isSplayRoot(current); current = up[current]) {
+            stack[top++] = up[current];
+        }
+        while (top > 0) {
+            push(stack[--top]);
+        }
+        while (!isSplayRoot(node)) {
+            int parent = up[node];
+            if (!isSplayRoot(parent)) {
+                int grandparent = up[parent];
+                boolean zigZig = (left[grandparent] == parent) == (left[parent] == node);
+                rotate(zigZig ? parent : node);
+            }
+            rotate(node);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.axerold;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица с открытой адресацией из неотрицательных long в неотрицательные int. <br>
+ * В отличие от HashMap&lt;Long, Integer&gt;, ключи и значения не упаковываются в объекты: таблица - это два
+ * массива примитивов, и поиск не создаёт мусора. Коллизии разрешаются линейным пробированием, удаление
+ * сдвигает следующие элементы цепочки назад, так что «надгробий» нет и поиск не деградирует при частых
+ * удалениях. Таблица увеличивается вдвое, когда заполнена больше чем на половину.
+ */
+final class LongIntHashMap {
+    static final int ABSENT = -1; // значение, возвращаемое для отсутствующего ключа
+    private static final long EMPTY = -1; // ключ свободной ячейки
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int shift; // 64 - log2(ёмкости): номер ячейки - старшие биты произведения ключа на MULTIPLIER
+    private int size;
+
+    LongIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return значение для ключа, либо {@link #ABSENT}
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return ABSENT;
+            }
+        }
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != ABSENT;
+    }
+
+    /**
+     * Добавляет ключ или заменяет его значение.
+     */
+    void put(long key, int value) {
+        if (2 * (size + 1) > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Удаляет ключ, если он есть.
+     */
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // сдвигаем назад элементы цепочки, которые иначе стали бы недостижимы из своей исходной ячейки
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * MULTIPLIER) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        shift = Long.numberOfLeadingZeros(capacity - 1L);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package org.axerold;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
 // предупреждений и взаимодействия с пользователем
 
@@ -22,19 +21,28 @@ public final class Main {
      */
     public static int[][] modifyWeightMatrix(int[][] initMatrix, int startVertex) {
         Graph graph = new Graph(initMatrix);
-        Prim primAlgo = new Prim(graph);
         try {
-            if (startVertex < 0 || startVertex > initMatrix.length) {
-                primAlgo.run(); // для выбора случайной вершины можно ввести любое некорректное значение, например, -1
-            } else {
-                primAlgo.run(startVertex);
-            }
+            runEngine(defaultEngine(graph), graph, startVertex);
         } catch (IndexOutOfBoundsException e) {
             return null;
         }
         return graph.retrieveModifiedWeightMatrix();
     }
 
+    /**
+     * То же, что {@link Main#modifyWeightMatrix(int[][], int)}, но результат берётся из кэша, если такая
+     * матрица уже обрабатывалась. Возвращается новая матрица, которую можно изменять.
+     * @param cache кэш результатов, общий для всех вызывающих
+     */
+    public static int[][] modifyWeightMatrix(int[][] initMatrix, int startVertex, MstCache cache) {
+        try {
+            MstResult result = cache.solve(initMatrix, startVertex);
+            return result == null ? null : result.toMatrix();
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
     /**
      * Данная функция используется для файлового ввода/вывода.
      * @param graph граф построенный по исходной матрице весов
@@ -42,13 +50,41 @@ public final class Main {
      * @return граф с рёбрами, помеченными, как входящие в MST
      */
     public static Graph modifyGraph(Graph graph, int startVertex) {
-        Prim primAlgo = new Prim(graph);
-        if (startVertex < 0 || startVertex > graph.getVertices().size()) {
-            primAlgo.run();
+        return modifyGraph(graph, startVertex, Main::defaultEngine);
+    }
+
+    /**
+     * То же, что {@link Main#modifyGraph(Graph, int)}, но с явно выбранным алгоритмом,
+     * например, {@code Main.modifyGraph(graph, 0, Kruskal::new)}.
+     * @param engineFactory создаёт алгоритм для данного графа
+     */
+    public static Graph modifyGraph(Graph graph, int startVertex, Function<Graph, MstEngine> engineFactory) {
+        runEngine(engineFactory.apply(graph), graph, startVertex);
+        return graph;
+    }
+
+    /**
+     * Алгоритм выбирается по форме графа, см. {@link MstEngineSelector}.
+     */
+    private static MstEngine defaultEngine(Graph graph) {
+        return MstEngineSelector.select(graph).create(graph);
+    }
+
+    /**
+     * Запускает алгоритм и логирует время его работы на уровне DEBUG.
+     * Для выбора случайной вершины можно ввести любое некорректное значение, например, -1.
+     */
+    private static void runEngine(MstEngine engine, Graph graph, int startVertex) {
+        long stageStart = MstMetrics.startStage();
+        long start = System.nanoTime();
+        if (startVertex < 0 || startVertex > graph.getVertexCount()) {
+            engine.run();
         } else {
-            primAlgo.run(startVertex);
+            engine.run(startVertex);
         }
-        return graph;
+        log.debug("{} finished in {} us", engine.getClass().getSimpleName(), (System.nanoTime() - start) / 1000);
+        MstMetrics.endStage(MstMetrics.Stage.ENGINE, stageStart, graph.getVertexCount(),
+                graph.getCsrGraph() == null ? 0 : graph.getCsrGraph().getEdgeCount());
     }
 
     /**
@@ -59,6 +95,7 @@ public final class Main {
      */
 
     private static Graph parseString(String rawText) {
+        long start = MstMetrics.startStage();
         String[] strings = rawText.split("\r\n");
         var values = strings[0].split(" ");
         int n = Integer.parseInt(values[0]);
@@ -75,6 +112,7 @@ public final class Main {
                     initMatrix[i - 1][j] = Integer.parseInt(row[j]);
                 }
             }
+            MstMetrics.endStage(MstMetrics.Stage.INPUT, start, n, 0);
             Graph graph = new Graph(initMatrix);
             return modifyGraph(graph, startVertex);
         } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
@@ -84,7 +122,33 @@ public final class Main {
     }
 
     /**
-     * Осуществляет считывание графа из файла input.txt <br>
+     * Осуществляет считывание графа в формате списка рёбер.
+     * @param path путь к файлу .edges или .edges.gz
+     * @return граф, полученный с помощью
+     * @see EdgeListReader
+     * @see Main#modifyGraph(Graph, int)
+     */
+    private static Graph parseEdgeList(Path path) throws IOException {
+        try (EdgeListReader reader = new EdgeListReader(path)) {
+            long start = MstMetrics.startStage();
+            CsrGraph csrGraph = reader.readGraph();
+            MstMetrics.endStage(MstMetrics.Stage.INPUT, start, csrGraph.getVertexCount(), csrGraph.getEdgeCount());
+            MstMetrics.recordBytesParsed(reader.getBytesRead());
+            Graph graph = new Graph(csrGraph);
+            log.info("Read {} edges ({} bytes) from {}", graph.getCsrGraph().getEdgeCount(),
+                    reader.getBytesRead(), path);
+            return modifyGraph(graph, reader.getStartVertex());
+        } catch (IllegalArgumentException e) {
+            log.error("Apparently, you have an incorrect format of edge list: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Осуществляет считывание графа из файла (по умолчанию input.txt) <br>
+     * Файлы с расширением .edges или .edges.gz читаются как список рёбер (см. {@link EdgeListReader}),
+     * файлы .csr отображаются в память как бинарный граф (см. {@link BinaryGraphFormat}),
+     * остальные - как матрица весов. <br>
      * Корректный формат файла: <br>
      * n v <br>
      * E11 ... E1n <br>
@@ -93,15 +157,33 @@ public final class Main {
      * ::: ......... ::: <br>
      * En1 ... Enn <br>
      * где n - количество вершин, v - стартовая вершина, коэффициенты Eij - коэф-ты матрицы весов.
+     * @param path путь к входному файлу
      * @throws IOException в случае проблем с вводом, например, файла не существует.
      * @return граф, полученный с помощью parseString()
      * @see Main#parseString(String)
      */
 
-    private static Graph inputGraph() throws IOException {
-        Path path = Path.of("src/main/java/org/axerold/input.txt");
+    private static Graph inputGraph(Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        if (fileName.endsWith(".edges") || fileName.endsWith(".edges.gz")) {
+            return parseEdgeList(path);
+        }
+        if (fileName.endsWith(".csr")) {
+            try {
+                long start = MstMetrics.startStage();
+                MappedCsrGraph mappedGraph = BinaryGraphFormat.map(path);
+                MstMetrics.endStage(MstMetrics.Stage.INPUT, start, mappedGraph.getVertexCount(),
+                        mappedGraph.getEdgeCount());
+                return modifyGraph(new Graph(mappedGraph), mappedGraph.getStartVertex());
+            } catch (IllegalArgumentException e) {
+                log.error(e.getMessage());
+                return null;
+            }
+        }
+        long start = MstMetrics.startStage();
         StringBuilder mapBuilder = new StringBuilder();
         try (FileChannel inChannel = FileChannel.open(path)) {
+            MstMetrics.recordBytesParsed(inChannel.size());
             ByteBuffer buff = ByteBuffer.allocate((int) inChannel.size());
             int bytesRead = inChannel.read(buff);
             while (bytesRead != -1) {
@@ -113,37 +195,76 @@ public final class Main {
                 bytesRead = inChannel.read(buff);
             }
         }
+        MstMetrics.endStage(MstMetrics.Stage.INPUT, start, 0, 0);
         return parseString(mapBuilder.toString());
     }
 
     /**
-     * Осуществляет вывод графа в output.txt
+     * Осуществляет потоковый вывод результата, см. {@link MstWriter}. Граф, заданный матрицей весов,
+     * по умолчанию выводится матрицей, остальные - списком рёбер дерева, чтобы объём вывода не рос как V².
+     * Расширение .edges или .csr у выходного файла задаёт формат явно.
      * @param graph граф, полученный из inputGraph()
+     * @param path путь к выходному файлу
      * @throws IOException в случае проблем с выводом
-     * @see Main#inputGraph()
+     * @see Main#inputGraph(Path)
      */
-    private static void outputGraph(Graph graph) throws IOException {
-        graph.retrieveModifiedWeightMatrix();
-        Path path = Path.of("src/main/java/org/axerold/output.txt");
-        var bytes = graph.toString()
-                .getBytes(StandardCharsets.UTF_8);
-        try (FileOutputStream fos = new FileOutputStream(path.toString());
-             FileChannel outChannel = fos.getChannel()) {
-            ByteBuffer buff = ByteBuffer.wrap(bytes);
-            outChannel.write(buff);
-        }
+    private static void outputGraph(Graph graph, Path path) throws IOException {
+        MstWriter.Format defaultFormat = graph.getInitMatrix() != null
+                ? MstWriter.Format.MATRIX
+                : MstWriter.Format.EDGE_LIST;
+        long start = MstMetrics.startStage();
+        MstWriter.write(graph, path, MstWriter.Format.forPath(path, defaultFormat));
+        MstMetrics.endStage(MstMetrics.Stage.OUTPUT, start, graph.getVertexCount(),
+                graph.getMstResult() == null ? 0 : graph.getMstResult().getEdgeCount());
     }
 
+    /**
+     * @param args необязательные пути к входному и выходному файлам; по умолчанию читается
+     * src/main/java/org/axerold/input.txt, а результат пишется в src/main/java/org/axerold/output.txt.
+     * Вызов с аргументами --convert matrix.txt graph.csr конвертирует матрицу весов в бинарный формат,
+     * а с аргументами --server port - запускает сервер, см. {@link MstServer}.
+     * Вызов с аргументами --external graph.edges tree.edges budgetMiB строит MST графа, который не помещается
+     * в память, с ограничением памяти в мегабайтах, см. {@link ExternalKruskal}.
+     */
     public static void main(String[] args) {
+        if (args.length == 4 && args[0].equals("--external")) {
+            try {
+                Path output = Path.of(args[2]);
+                ExternalKruskal.Summary summary = new ExternalKruskal(Long.parseLong(args[3]) << 20,
+                        output.toAbsolutePath().getParent()).run(Path.of(args[1]), output);
+                log.info("Minimum spanning forest: {} edges, total weight {}, {} sorted runs",
+                        summary.edgeCount(), summary.totalWeight(), summary.runCount());
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("External MST failed: {}", e.getMessage());
+            }
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--server")) {
+            try (MstServer server = new MstServer(Integer.parseInt(args[1]))) {
+                server.serve();
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Server failed: {}", e.getMessage());
+            }
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--convert")) {
+            try {
+                BinaryGraphFormat.convertMatrix(Path.of(args[1]), Path.of(args[2]));
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Conversion failed: {}", e.getMessage());
+            }
+            return;
+        }
+        Path input = Path.of(args.length > 0 ? args[0] : "src/main/java/org/axerold/input.txt");
         Graph graph = null;
         try {
-            graph = inputGraph();
+            graph = inputGraph(input);
         } catch (IOException e) {
             log.error("There's some problem with input");
         }
         if (graph != null) {
             try {
-                outputGraph(graph);
+                outputGraph(graph, Path.of(args.length > 1 ? args[1] : "src/main/java/org/axerold/output.txt"));
             } catch (IOException e) {
                 log.error("There's some problem with output");
             }
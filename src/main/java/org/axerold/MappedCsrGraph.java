@@ -0,0 +1,56 @@
+package org.axerold;
+
+import java.nio.IntBuffer;
+
+/**
+ * Граф в формате CSR, массивы которого - представления IntBuffer поверх отображённого в память файла
+ * (см. {@link BinaryGraphFormat}). Данные не копируются в кучу: страницы файла подгружаются
+ * операционной системой по мере обращения к ним.
+ */
+public final class MappedCsrGraph implements SparseGraph {
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final int startVertex; // стартовая вершина, сохранённая в заголовке файла
+
+    MappedCsrGraph(IntBuffer offsets, IntBuffer targets, IntBuffer weights, int startVertex) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.startVertex = startVertex;
+    }
+
+    public int getStartVertex() {
+        return startVertex;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return offsets.limit() - 1;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.limit() / 2;
+    }
+
+    @Override
+    public int edgesBegin(int vertex) {
+        return offsets.get(vertex);
+    }
+
+    @Override
+    public int edgesEnd(int vertex) {
+        return offsets.get(vertex + 1);
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return targets.get(edge);
+    }
+
+    @Override
+    public int getWeight(int edge) {
+        return weights.get(edge);
+    }
+}
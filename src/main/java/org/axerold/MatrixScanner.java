@@ -0,0 +1,150 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Проверка матрицы весов и построение CSR за один проход. <br>
+ * Строки матрицы делятся на блоки, и блоки обрабатываются параллельно. Для каждой ячейки блока сразу
+ * проверяется симметричность (сравнением с транспонированной ячейкой) и диагональ, а ненулевые элементы
+ * записываются в локальные массивы блока. После прохода смещения строк суммируются, и локальные массивы
+ * блоков копируются в итоговые массивы CSR. Таким образом матрица читается один раз, а не по разу на каждую
+ * проверку и на построение рёбер.
+ */
+public final class MatrixScanner {
+    private static final int CELLS_PER_BLOCK = 1 << 16; // примерный размер блока в ячейках матрицы
+
+    private MatrixScanner() {}
+
+    /**
+     * @return граф в формате CSR; списки смежности упорядочены по возрастанию соседа
+     * @throws InvalidGraphException если матрица пуста, не квадратная, не симметрическая или на главной
+     * диагонали есть ненулевые элементы. Если ошибок несколько, сообщается первая по строкам.
+     */
+    public static CsrGraph scan(int[][] matrix) {
+        checkSquare(matrix);
+        int n = matrix.length;
+        int rowsPerBlock = Math.max(1, CELLS_PER_BLOCK / n);
+        int blockCount = (n + rowsPerBlock - 1) / rowsPerBlock;
+        int[] offsets = new int[n + 1];
+        Block[] blocks = new Block[blockCount];
+        IntStream.range(0, blockCount).parallel().forEach(b -> {
+            int from = b * rowsPerBlock;
+            blocks[b] = scanRows(matrix, from, Math.min(n, from + rowsPerBlock), offsets);
+        });
+        for (Block block : blocks) {
+            if (block.error != null) {
+                throw block.error; // блоки идут по порядку строк, так что это первая ошибка в матрице
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        IntStream.range(0, blockCount).parallel().forEach(b -> {
+            Block block = blocks[b];
+            int position = offsets[b * rowsPerBlock];
+            System.arraycopy(block.targets, 0, targets, position, block.size);
+            System.arraycopy(block.weights, 0, weights, position, block.size);
+        });
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Последовательная проверка матрицы без построения CSR - для небольших матриц, которые обрабатываются
+     * целиком в одном потоке, см. {@link BatchSolver}.
+     * @throws InvalidGraphException по тем же правилам, что и {@link #scan(int[][])}
+     */
+    public static void validate(int[][] matrix) {
+        checkSquare(matrix);
+        for (int i = 0; i < matrix.length; i++) {
+            int[] row = matrix[i];
+            if (row[i] != 0) {
+                throw loop(matrix, i);
+            }
+            for (int j = 0; j < i; j++) {
+                if (row[j] != matrix[j][i]) {
+                    throw oriented(matrix, i, j);
+                }
+            }
+        }
+    }
+
+    private static void checkSquare(int[][] matrix) {
+        int n = matrix.length;
+        if (n == 0) {
+            throw new InvalidGraphException("Weight matrix is empty", 0, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            if (matrix[i] == null || matrix[i].length != n) {
+                throw new InvalidGraphException("Weight matrix is not square: row %d has %d elements instead of %d"
+                        .formatted(i, matrix[i] == null ? 0 : matrix[i].length, n), i, 0);
+            }
+        }
+    }
+
+    private static InvalidGraphException loop(int[][] matrix, int i) {
+        return new InvalidGraphException("Loops are unacceptable: cell [%d][%d] = %d"
+                .formatted(i, i, matrix[i][i]), i, i);
+    }
+
+    private static InvalidGraphException oriented(int[][] matrix, int i, int j) {
+        return new InvalidGraphException("Oriented graph is unacceptable: cell [%d][%d] = %d, but [%d][%d] = %d"
+                .formatted(i, j, matrix[i][j], j, i, matrix[j][i]), i, j);
+    }
+
+    /**
+     * Обрабатывает строки [from, to): проверяет ячейки и собирает ненулевые элементы.
+     * Степень строки i записывается в degrees[i + 1]; блоки пишут в непересекающиеся ячейки.
+     */
+    private static Block scanRows(int[][] matrix, int from, int to, int[] degrees) {
+        Block block = new Block(Math.max(16, (to - from) * 4));
+        for (int i = from; i < to; i++) {
+            int[] row = matrix[i];
+            if (row[i] != 0) {
+                block.error = loop(matrix, i);
+                return block;
+            }
+            int degree = 0;
+            for (int j = 0; j < row.length; j++) {
+                int weight = row[j];
+                if (j < i && weight != matrix[j][i]) {
+                    block.error = oriented(matrix, i, j);
+                    return block;
+                }
+                if (weight != 0) {
+                    block.add(j, weight);
+                    degree++;
+                }
+            }
+            degrees[i + 1] = degree;
+        }
+        return block;
+    }
+
+    /**
+     * Локальные массивы одного блока строк.
+     */
+    private static final class Block {
+        private int[] targets;
+        private int[] weights;
+        private int size;
+        private InvalidGraphException error; // первая ошибка в блоке
+
+        Block(int capacity) {
+            targets = new int[capacity];
+            weights = new int[capacity];
+        }
+
+        void add(int target, int weight) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            targets[size] = target;
+            weights[size++] = weight;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.axerold;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Построение минимального остовного леса для несвязного графа. <br>
+ * Граф заранее делится на компоненты связности по разметке из {@link Graph#getComponentIds()},
+ * и в каждой компоненте алгоритм Прима запускается отдельно. Компоненты группируются в пакеты примерно
+ * по {@link #BATCH_SIZE} вершин, и пакеты обрабатываются параллельно на общем пуле потоков ограниченного
+ * размера. Внутри компоненты все вершины достижимы, поэтому ни вершин с бесконечным расстоянием,
+ * ни особых случаев "вершина без предка" в цикле нет.
+ */
+@Slf4j
+public class MinimumSpanningForest implements MstEngine {
+    static final int BATCH_SIZE = 1 << 14; // вершин в одной задаче пула
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "mst-forest");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Graph graph;
+    private ForestResult result;
+
+    public MinimumSpanningForest(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Без заданной стартовой вершины выбирается случайная вершина графа.
+     */
+    @Override
+    public void run() {
+        int vertexIndex = (int) (Math.random() * graph.getVertexCount());
+        run(vertexIndex);
+    }
+
+    /**
+     * @param startVertex корень дерева своей компоненты; остальные деревья подвешиваются за наименьшую вершину
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    @Override
+    public void run(int startVertex) {
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+        int[] componentIds = graph.getComponentIds();
+        int count = graph.getComponentCount();
+
+        // сортировка вершин подсчётом по номеру компоненты, внутри компоненты - по возрастанию
+        int[] componentStart = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            componentStart[componentIds[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            componentStart[c + 1] += componentStart[c];
+        }
+        int[] next = Arrays.copyOf(componentStart, count);
+        int[] vertices = new int[n];
+        int[] localIndex = new int[n]; // номер вершины внутри своей компоненты
+        for (int v = 0; v < n; v++) {
+            int position = next[componentIds[v]]++;
+            vertices[position] = v;
+            localIndex[v] = position - componentStart[componentIds[v]];
+        }
+
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        long[] weights = new long[count];
+        boolean[] inTree = new boolean[n];
+        ComponentPrim prim = new ComponentPrim(graph.getCsrGraph(), vertices, componentStart, localIndex,
+                startVertex, componentIds[startVertex], parent, parentWeight, weights, inTree);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int c = 0; c < count; ) {
+            int first = c;
+            int largest = 0;
+            while (c < count && componentStart[c] - componentStart[first] < BATCH_SIZE) {
+                largest = Math.max(largest, componentStart[c + 1] - componentStart[c]);
+                c++;
+            }
+            int last = c;
+            int capacity = largest;
+            tasks.add(() -> {
+                prim.span(first, last, capacity);
+                return null;
+            });
+        }
+        if (tasks.size() == 1) {
+            prim.span(0, count, n);
+        } else {
+            invokeAll(tasks);
+        }
+
+        result = new ForestResult(vertices, componentStart, parent, parentWeight, weights);
+        graph.setSpanningForest(parent, parentWeight);
+        if (count > 1) {
+            log.info("Forest of {} minimum spanning trees is built in {} tasks", count, tasks.size());
+        }
+    }
+
+    private static void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : EXECUTOR.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building minimum spanning forest", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return результат последнего запуска, либо null, если алгоритм ещё не запускался
+     */
+    public ForestResult getResult() {
+        return result;
+    }
+
+    /**
+     * Алгоритм Прима внутри одной компоненты. Массивы результата общие для всех задач, но каждая задача
+     * пишет только в ячейки вершин своих компонент, так что синхронизация не нужна: результаты становятся
+     * видимы вызывающему потоку после завершения задач.
+     */
+    private record ComponentPrim(SparseGraph csr, int[] vertices, int[] componentStart, int[] localIndex,
+                                 int startVertex, int startComponent, int[] parent, int[] parentWeight,
+                                 long[] weights, boolean[] inTree) {
+
+        /**
+         * Обрабатывает компоненты [first, last). Куча одна на все компоненты пакета: после того как компонента
+         * обработана, куча снова пуста и может быть использована для следующей.
+         * @param capacity размер наибольшей компоненты пакета
+         */
+        void span(int first, int last, int capacity) {
+            CustomPriorityQueue heap = new CustomPriorityQueue(capacity);
+            long pushes = 0; // счётчики для MstMetrics, общие для всех компонент пакета
+            long decreases = 0;
+            long relaxed = 0;
+            long extracted = 0;
+            for (int c = first; c < last; c++) {
+                int offset = componentStart[c];
+                int root = c == startComponent ? startVertex : vertices[offset];
+                parent[root] = -1;
+                heap.add(localIndex[root], 0);
+                pushes++;
+                long weight = 0;
+                while (!heap.isEmpty()) {
+                    int local = heap.poll();
+                    int vertex = vertices[offset + local];
+                    inTree[vertex] = true;
+                    parentWeight[vertex] = heap.getKey(local);
+                    weight += parentWeight[vertex];
+                    extracted++;
+                    relaxed += csr.edgesEnd(vertex) - csr.edgesBegin(vertex);
+                    for (int e = csr.edgesBegin(vertex); e < csr.edgesEnd(vertex); e++) {
+                        int adjacent = csr.getTarget(e);
+                        if (inTree[adjacent]) {
+                            continue;
+                        }
+                        int adjacentLocal = localIndex[adjacent];
+                        int edgeWeight = csr.getWeight(e);
+                        if (!heap.contains(adjacentLocal)) { // вершина достигнута впервые
+                            heap.add(adjacentLocal, edgeWeight);
+                            parent[adjacent] = vertex;
+                            pushes++;
+                        } else if (edgeWeight < heap.getKey(adjacentLocal)) {
+                            heap.decreaseKey(adjacentLocal, edgeWeight);
+                            parent[adjacent] = vertex;
+                            decreases++;
+                        }
+                    }
+                }
+                weights[c] = weight;
+            }
+            MstMetrics.recordEngine(pushes, decreases, relaxed, extracted);
+        }
+    }
+}
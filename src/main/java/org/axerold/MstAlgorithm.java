@@ -0,0 +1,25 @@
+package org.axerold;
+
+import java.util.function.Function;
+
+/**
+ * Доступные алгоритмы построения MST. Имя константы используется и в системном свойстве
+ * {@link MstEngineSelector#ENGINE_PROPERTY} для ручного выбора алгоритма.
+ */
+public enum MstAlgorithm {
+    DENSE_PRIM(DensePrim::new), // Прим с линейным поиском по матрице весов, O(V²)
+    PRIM(Prim::new), // Прим на индексированной куче, O(E log V)
+    KRUSKAL(Kruskal::new), // Краскал с параллельной сортировкой рёбер, O(E log E)
+    BORUVKA(Boruvka::new), // параллельный Борувка, O(E log V) работы на все ядра
+    FOREST(MinimumSpanningForest::new); // Прим по компонентам связности параллельно, для несвязных графов
+
+    private final Function<Graph, MstEngine> factory;
+
+    MstAlgorithm(Function<Graph, MstEngine> factory) {
+        this.factory = factory;
+    }
+
+    public MstEngine create(Graph graph) {
+        return factory.apply(graph);
+    }
+}
@@ -0,0 +1,223 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Кэш результатов алгоритма для повторяющихся матриц весов. <br>
+ * Ключ - 64-битный хэш содержимого матрицы, размер матрицы и стартовая вершина. Если все веса рёбер различны,
+ * MST единственно и от стартовой вершины не зависит, поэтому такой результат хранится под ключом без вершины
+ * и подходит для любого старта. При равных весах дерево, построенное от случайной вершины, не кэшируется:
+ * запрос с явной стартовой вершиной должен получить то же дерево, что и без кэша. <br>
+ * Один и тот же неизменяемый {@link MstResult} выдаётся всем вызывающим. <br>
+ * Размер кэша ограничен суммарным объёмом результатов в байтах; при переполнении вытесняются результаты,
+ * к которым дольше всего не обращались (LRU). Сами вычисления выполняются вне блокировки, поэтому
+ * кэшем можно пользоваться из нескольких потоков одновременно. <br>
+ * Вероятность совпадения 64-битных хэшей у двух разных матриц при миллионе записей - порядка 10^-8.
+ */
+public final class MstCache {
+    private static final int ANY_START = -1; // стартовая вершина для результатов, не зависящих от неё
+    private static final long ENTRY_OVERHEAD = 96; // примерный размер ключа, записи карты и объекта результата
+    private static final int PARALLEL_ROWS = 256; // с такого размера строки матрицы хэшируются параллельно
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final long maxBytes;
+    private final Map<Key, MstResult> entries = new LinkedHashMap<>(16, 0.75f, true); // порядок обращений
+    private final ReentrantLock lock = new ReentrantLock();
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Key(long hash, int vertexCount, int startVertex) {}
+
+    /**
+     * @param maxBytes наибольший суммарный объём хранимых результатов в байтах
+     */
+    public MstCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Возвращает результат алгоритма для матрицы весов, при необходимости вычисляя его,
+     * см. {@link Main#modifyGraph(Graph, int)}.
+     * @param startVertex стартовая вершина; некорректное значение означает случайную вершину, и тогда
+     * подходит результат, не зависящий от старта
+     * @return результат, либо null, если матрица не задаёт корректный граф
+     */
+    public MstResult solve(int[][] matrix, int startVertex) {
+        long hash = hash(matrix);
+        int n = matrix.length;
+        boolean anyStart = startVertex < 0 || startVertex > n;
+        MstResult cached = lookup(new Key(hash, n, ANY_START), anyStart ? null : new Key(hash, n, startVertex));
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Graph graph = new Graph(matrix);
+        if (!graph.isValid()) {
+            return null;
+        }
+        MstResult result = Main.modifyGraph(graph, startVertex).getMstResult();
+        if (hasDistinctWeights(graph.getCsrGraph())) {
+            store(new Key(hash, n, ANY_START), result);
+        } else if (!anyStart) {
+            store(new Key(hash, n, startVertex), result);
+        }
+        return result;
+    }
+
+    /**
+     * Сначала ищет результат, не зависящий от старта, затем - для конкретной вершины.
+     */
+    private MstResult lookup(Key anyStartKey, Key startKey) {
+        lock.lock();
+        try {
+            MstResult result = entries.get(anyStartKey);
+            return result != null || startKey == null ? result : entries.get(startKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, MstResult result) {
+        long size = sizeOf(result);
+        if (size > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            MstResult previous = entries.put(key, result);
+            usedBytes += size - (previous == null ? 0 : sizeOf(previous));
+            Iterator<MstResult> eldest = entries.values().iterator();
+            while (usedBytes > maxBytes) {
+                usedBytes -= sizeOf(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Хэш содержимого матрицы. Строки хэшируются независимо (для больших матриц - параллельно),
+     * после чего хэши строк объединяются с учётом порядка.
+     */
+    static long hash(int[][] matrix) {
+        long[] rowHashes = new long[matrix.length];
+        IntStream rows = IntStream.range(0, matrix.length);
+        (matrix.length >= PARALLEL_ROWS ? rows.parallel() : rows).forEach(i -> rowHashes[i] = hashRow(matrix[i]));
+        long hash = matrix.length;
+        for (long rowHash : rowHashes) {
+            hash = mix(hash ^ rowHash);
+        }
+        return hash;
+    }
+
+    private static long hashRow(int[] row) {
+        if (row == null) {
+            return 0;
+        }
+        long hash = row.length * MULTIPLIER;
+        int j = 0;
+        for (; j + 1 < row.length; j += 2) {
+            hash = Long.rotateLeft(hash ^ ((long) row[j] << 32 | (row[j + 1] & 0xFFFFFFFFL)), 31) * MULTIPLIER;
+        }
+        if (j < row.length) {
+            hash = Long.rotateLeft(hash ^ row[j], 31) * MULTIPLIER;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Финальное перемешивание битов (из SplitMix64).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * При попарно различных весах MST единственно, и его не меняет ни стартовая вершина, ни выбор алгоритма.
+     */
+    private static boolean hasDistinctWeights(SparseGraph graph) {
+        int[] weights = new int[graph.getEdgeCount()];
+        int size = 0;
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            for (int e = graph.edgesBegin(v); e < graph.edgesEnd(v); e++) {
+                if (v < graph.getTarget(e)) {
+                    weights[size++] = graph.getWeight(e);
+                }
+            }
+        }
+        Arrays.parallelSort(weights, 0, size);
+        for (int k = 1; k < size; k++) {
+            if (weights[k] == weights[k - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long sizeOf(MstResult result) {
+        return ENTRY_OVERHEAD + 2L * Integer.BYTES * result.getVertexCount();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return количество хранимых результатов
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return суммарный объём хранимых результатов в байтах
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.axerold;
+
+/**
+ * Общий интерфейс алгоритмов построения минимального остовного дерева (леса).
+ * Реализация получает граф в конструкторе, а по окончании работы передаёт ему результат
+ * через {@link Graph#setSpanningForest(int[], int[])}, так что матрицу весов MST можно получить
+ * из {@link Graph#retrieveModifiedWeightMatrix()} независимо от выбранного алгоритма.
+ */
+public interface MstEngine {
+    /**
+     * Запуск со случайно выбранной стартовой вершиной.
+     */
+    void run();
+
+    /**
+     * @param startVertex стартовая вершина (корень дерева)
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    void run(int startVertex);
+}
@@ -0,0 +1,80 @@
+package org.axerold;
+
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Выбирает алгоритм построения MST по форме графа: числу вершин и рёбер, плотности и количеству ядер. <br>
+ * Выбор можно зафиксировать системным свойством, например, {@code -Dprim.engine=kruskal}.
+ * Значение {@code auto} (или отсутствие свойства) означает автоматический выбор.
+ */
+@Slf4j
+public final class MstEngineSelector {
+    public static final String ENGINE_PROPERTY = "prim.engine";
+
+    /**
+     * Начиная с этой плотности графа вместо Прима на куче используется вариант с линейным поиском минимума
+     * по матрице (O(V²)): на плотных графах он выигрывает у O(E log V).
+     */
+    static final double DENSE_GRAPH_THRESHOLD = 0.25;
+
+    /**
+     * С этого количества рёбер параллельный Борувка окупает накладные расходы на потоки.
+     */
+    static final int PARALLEL_EDGE_THRESHOLD = 1 << 20;
+
+    /**
+     * При средней степени вершины не больше этой Краскал с сортировкой рёбер быстрее Прима на куче.
+     */
+    static final int SPARSE_AVERAGE_DEGREE = 8;
+
+    private MstEngineSelector() {}
+
+    /**
+     * @return алгоритм, заданный системным свойством, либо выбранный автоматически
+     */
+    public static MstAlgorithm select(Graph graph) {
+        String property = System.getProperty(ENGINE_PROPERTY, "auto").trim();
+        if (!property.equalsIgnoreCase("auto")) {
+            try {
+                MstAlgorithm algorithm = MstAlgorithm.valueOf(property.toUpperCase(Locale.ROOT));
+                if (algorithm == MstAlgorithm.DENSE_PRIM && graph.getInitMatrix() == null) {
+                    log.warn("{} requires a weight matrix, falling back to automatic selection", algorithm);
+                } else {
+                    log.info("MST engine {} is forced by -D{}", algorithm, ENGINE_PROPERTY);
+                    return algorithm;
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown MST engine '{}' in -D{}, falling back to automatic selection",
+                        property, ENGINE_PROPERTY);
+            }
+        }
+        MstAlgorithm algorithm = selectByShape(graph, Runtime.getRuntime().availableProcessors());
+        log.debug("MST engine {} selected for V = {}, E = {}, density = {}", algorithm, graph.getVertexCount(),
+                graph.getCsrGraph() == null ? 0 : graph.getCsrGraph().getEdgeCount(), graph.getDensity());
+        return algorithm;
+    }
+
+    /**
+     * Автоматический выбор без учёта системного свойства.
+     * @param cores количество доступных ядер
+     */
+    static MstAlgorithm selectByShape(Graph graph, int cores) {
+        if (graph.getInitMatrix() != null && graph.getDensity() >= DENSE_GRAPH_THRESHOLD) {
+            return MstAlgorithm.DENSE_PRIM;
+        }
+        if (graph.getComponentCount() > 1) {
+            return MstAlgorithm.FOREST;
+        }
+        int vertices = graph.getVertexCount();
+        int edges = graph.getCsrGraph() == null ? 0 : graph.getCsrGraph().getEdgeCount();
+        if (cores > 1 && edges >= PARALLEL_EDGE_THRESHOLD) {
+            return MstAlgorithm.BORUVKA;
+        }
+        if (edges <= (long) vertices * SPARSE_AVERAGE_DEGREE / 2) {
+            return MstAlgorithm.KRUSKAL;
+        }
+        return MstAlgorithm.PRIM;
+    }
+}
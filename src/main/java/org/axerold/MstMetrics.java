@@ -0,0 +1,246 @@
+package org.axerold;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.EventType;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Счётчики и таймеры конвейера: чтение входа, построение и проверка графа, работа алгоритма и вывод. <br>
+ * Сбор включается системным свойством {@value #ENABLED_PROPERTY}=true или через JMX
+ * ({@link MstMetricsMXBean#setEnabled(boolean)}), без изменения кода. Каждый этап, кроме того, записывается
+ * событием JFR {@link MstStageEvent}, если идёт запись JFR. <br>
+ * Горячий цикл каждого алгоритма считает операции в локальных переменных и передаёт их сюда один раз за запуск,
+ * поэтому счётчики почти ничего не стоят, а выключенные - сводятся к проверке одного флага на этап.
+ */
+@Slf4j
+public final class MstMetrics {
+    public static final String ENABLED_PROPERTY = "prim.metrics";
+    public static final String OBJECT_NAME = "org.axerold:type=MstMetrics";
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(MstStageEvent.class);
+    private static final long NOT_MEASURED = Long.MIN_VALUE; // начало этапа, который не измеряется
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final LongAdder HEAP_PUSHES = new LongAdder();
+    private static final LongAdder DECREASE_KEYS = new LongAdder();
+    private static final LongAdder EDGES_RELAXED = new LongAdder();
+    private static final LongAdder VERTICES_EXTRACTED = new LongAdder();
+    private static final LongAdder BYTES_PARSED = new LongAdder();
+    private static final LongAdder[] STAGE_NANOS = new LongAdder[Stage.values().length];
+    private static final LongAdder ENGINE_RUNS = new LongAdder();
+
+    /**
+     * Этапы конвейера.
+     */
+    public enum Stage {
+        /**
+         * Чтение и разбор входного файла.
+         */
+        INPUT,
+        /**
+         * Построение графа: проверка матрицы, перевод в CSR, разметка компонент связности.
+         */
+        VALIDATION,
+        /**
+         * Работа алгоритма построения MST.
+         */
+        ENGINE,
+        /**
+         * Вывод результата.
+         */
+        OUTPUT
+    }
+
+    static {
+        for (int i = 0; i < STAGE_NANOS.length; i++) {
+            STAGE_NANOS[i] = new LongAdder();
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.warn("Metrics are not registered in JMX: {}", e.getMessage());
+        }
+    }
+
+    private MstMetrics() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * @return момент начала этапа для {@link #endStage}; время засекается, только если сбор включён
+     * или идёт запись JFR
+     */
+    public static long startStage() {
+        return enabled || STAGE_EVENT.isEnabled() ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    /**
+     * Завершает этап, начатый {@link #startStage()}.
+     * @param vertices количество вершин графа, с которым работал этап (0, если неизвестно)
+     * @param edges количество рёбер графа (0, если неизвестно)
+     */
+    public static void endStage(Stage stage, long start, int vertices, long edges) {
+        if (start == NOT_MEASURED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (enabled) {
+            STAGE_NANOS[stage.ordinal()].add(elapsed);
+            if (stage == Stage.ENGINE) {
+                ENGINE_RUNS.increment();
+            }
+        }
+        MstStageEvent event = new MstStageEvent();
+        if (event.shouldCommit()) {
+            event.stage = stage.name();
+            event.vertices = vertices;
+            event.edges = edges;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Передаёт счётчики одного запуска алгоритма; счётчики, которых у алгоритма нет, передаются нулями.
+     * @param pushes добавления в очередь с приоритетом
+     * @param decreaseKeys уменьшения расстояния до MST
+     * @param edgesRelaxed просмотры рёбер: у Прима каждое ребро просматривается с обоих концов, у Прима на матрице
+     * - с конца, первым вошедшего в дерево, у Краскала и Борувки - в каждом проходе по рёбрам
+     * @param extracted вершины, добавленные в MST
+     */
+    public static void recordEngine(long pushes, long decreaseKeys, long edgesRelaxed, long extracted) {
+        if (enabled) {
+            HEAP_PUSHES.add(pushes);
+            DECREASE_KEYS.add(decreaseKeys);
+            EDGES_RELAXED.add(edgesRelaxed);
+            VERTICES_EXTRACTED.add(extracted);
+        }
+    }
+
+    public static void recordBytesParsed(long bytes) {
+        if (enabled) {
+            BYTES_PARSED.add(bytes);
+        }
+    }
+
+    public static long getStageNanos(Stage stage) {
+        return STAGE_NANOS[stage.ordinal()].sum();
+    }
+
+    public static long getHeapPushes() {
+        return HEAP_PUSHES.sum();
+    }
+
+    public static long getDecreaseKeys() {
+        return DECREASE_KEYS.sum();
+    }
+
+    public static long getEdgesRelaxed() {
+        return EDGES_RELAXED.sum();
+    }
+
+    public static long getVerticesExtracted() {
+        return VERTICES_EXTRACTED.sum();
+    }
+
+    public static long getBytesParsed() {
+        return BYTES_PARSED.sum();
+    }
+
+    public static long getEngineRuns() {
+        return ENGINE_RUNS.sum();
+    }
+
+    public static void reset() {
+        HEAP_PUSHES.reset();
+        DECREASE_KEYS.reset();
+        EDGES_RELAXED.reset();
+        VERTICES_EXTRACTED.reset();
+        BYTES_PARSED.reset();
+        ENGINE_RUNS.reset();
+        for (LongAdder nanos : STAGE_NANOS) {
+            nanos.reset();
+        }
+    }
+
+    /**
+     * Представление счётчиков для JMX.
+     */
+    private static final class Bean implements MstMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return MstMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            MstMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getHeapPushes() {
+            return MstMetrics.getHeapPushes();
+        }
+
+        @Override
+        public long getDecreaseKeys() {
+            return MstMetrics.getDecreaseKeys();
+        }
+
+        @Override
+        public long getEdgesRelaxed() {
+            return MstMetrics.getEdgesRelaxed();
+        }
+
+        @Override
+        public long getVerticesExtracted() {
+            return MstMetrics.getVerticesExtracted();
+        }
+
+        @Override
+        public long getBytesParsed() {
+            return MstMetrics.getBytesParsed();
+        }
+
+        @Override
+        public long getInputNanos() {
+            return getStageNanos(Stage.INPUT);
+        }
+
+        @Override
+        public long getValidationNanos() {
+            return getStageNanos(Stage.VALIDATION);
+        }
+
+        @Override
+        public long getEngineNanos() {
+            return getStageNanos(Stage.ENGINE);
+        }
+
+        @Override
+        public long getOutputNanos() {
+            return getStageNanos(Stage.OUTPUT);
+        }
+
+        @Override
+        public long getEngineRuns() {
+            return MstMetrics.getEngineRuns();
+        }
+
+        @Override
+        public void reset() {
+            MstMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.axerold;
+
+/**
+ * Счётчики конвейера построения MST, доступные через JMX под именем {@value MstMetrics#OBJECT_NAME}.
+ * Времена этапов - суммарные, в наносекундах.
+ */
+public interface MstMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getHeapPushes();
+
+    long getDecreaseKeys();
+
+    /**
+     * @return просмотры рёбер всеми алгоритмами, см. {@link MstMetrics#recordEngine}
+     */
+    long getEdgesRelaxed();
+
+    long getVerticesExtracted();
+
+    long getBytesParsed();
+
+    long getInputNanos();
+
+    long getValidationNanos();
+
+    long getEngineNanos();
+
+    long getOutputNanos();
+
+    /**
+     * @return количество запусков алгоритма
+     */
+    long getEngineRuns();
+
+    void reset();
+}
@@ -0,0 +1,93 @@
+package org.axerold;
+
+/**
+ * Результат работы алгоритма: минимальное остовное дерево (или лес), заданное массивом предков.
+ * Для V вершин хранится всего два массива по V элементов вместо матрицы V x V, в которой
+ * ненулевых значений всего 2(V - 1). Матрица весов строится только по запросу, см. {@link #toMatrix()}. <br>
+ * Результат неизменяем: массивы наружу не выдаются, поэтому один результат можно без синхронизации
+ * разделять между потоками (см. {@link MstCache}).
+ */
+public final class MstResult {
+    private final int[] parent; // parent[v] - предок вершины v в дереве, -1 для корня
+    private final int[] weight; // weight[v] - вес ребра от v до предка
+    private final long totalWeight; // суммарный вес дерева (леса)
+    private final int edgeCount; // количество рёбер дерева (леса)
+
+    /**
+     * Массивы не копируются: алгоритм передаёт их во владение результату.
+     * @param parent parent[v] - индекс предка вершины v, либо -1 для корня дерева
+     * @param weight weight[v] - вес ребра от v до предка
+     */
+    public MstResult(int[] parent, int[] weight) {
+        if (parent.length != weight.length) {
+            throw new IllegalArgumentException("Parent and weight arrays differ in length: %d and %d"
+                    .formatted(parent.length, weight.length));
+        }
+        this.parent = parent;
+        this.weight = weight;
+        long total = 0;
+        int edges = 0;
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] >= 0) {
+                total += weight[v];
+                edges++;
+            }
+        }
+        this.totalWeight = total;
+        this.edgeCount = edges;
+    }
+
+    public int getVertexCount() {
+        return parent.length;
+    }
+
+    /**
+     * @return количество рёбер: V - 1 для дерева, V минус количество деревьев для леса
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return предок вершины в дереве, либо -1, если вершина - корень
+     */
+    public int getParent(int vertex) {
+        return parent[vertex];
+    }
+
+    /**
+     * @return вес ребра от вершины до её предка, для корня - 0
+     */
+    public int getWeight(int vertex) {
+        return parent[vertex] < 0 ? 0 : weight[vertex];
+    }
+
+    /**
+     * Передаёт потребителю все рёбра дерева в виде (вершина, предок, вес) в порядке возрастания вершины.
+     */
+    public void forEachEdge(EdgeConsumer consumer) {
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] >= 0) {
+                consumer.accept(v, parent[v], weight[v]);
+            }
+        }
+    }
+
+    /**
+     * Матрица весов дерева. Создаётся заново при каждом вызове, так что её можно изменять, и занимает
+     * V x V ячеек, поэтому для больших графов лучше обходить рёбра через {@link #forEachEdge(EdgeConsumer)}.
+     */
+    public int[][] toMatrix() {
+        int n = parent.length;
+        int[][] result = new int[n][n];
+        forEachEdge((from, to, edgeWeight) -> {
+            result[from][to] = edgeWeight;
+            result[to][from] = edgeWeight;
+        });
+        return result;
+    }
+}
@@ -0,0 +1,345 @@
+package org.axerold;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Сервер, который строит MST для графов, присланных по локальному сокету. Процесс JVM живёт долго, поэтому
+ * запуск JVM и прогрев JIT оплачиваются один раз, а не на каждый граф, а рабочие области алгоритма
+ * переиспользуются всеми запросами через общий {@link PrimSolver}. <br>
+ * Каждое соединение обслуживается своим виртуальным потоком; запросы одного соединения выполняются по очереди,
+ * так что ответы приходят в порядке запросов. Блокирующее чтение из сокета у виртуального потока
+ * не занимает поток ОС. <br>
+ * Нагрузка ограничивается в два уровня: одновременно алгоритм выполняют не больше maxConcurrent запросов
+ * (по числу ядер), и ещё не больше queueCapacity принятых запросов ждут своей очереди. Кроме количества
+ * ограничен и суммарный объём памяти принятых запросов: оценка памяти запроса складывается из длины кадра
+ * и количества вершин, которое сервер узнаёт из заголовка до чтения рёбер. Запрос сверх любого из лимитов
+ * сразу получает ответ {@link #BUSY}, так что и память, и время ожидания остаются ограниченными.
+ * Количество вершин не может превышать maxFrameBytes / 4, а запрос, которому не хватит и всего бюджета
+ * памяти, получает {@link #BAD_REQUEST}. Рёбра принятого запроса должны прийти целиком за readTimeoutMillis,
+ * иначе запрос получает {@link #BAD_REQUEST}, соединение закрывается, и место запроса освобождается:
+ * медленный клиент не может держать место в очереди и бюджет памяти сколь угодно долго. <br>
+ * Протокол - кадры с длиной, все числа big-endian, вершины нумеруются с нуля. <br>
+ * Запрос: int длина, затем int V, int стартовая вершина, int E и E троек int (u, v, вес). Рёбра
+ * с нулевым весом пропускаются, как и в {@link EdgeListReader}. <br>
+ * Ответ: int длина, byte статус. Для {@link #OK} далее int V, long вес дерева, int количество рёбер и тройки
+ * int (вершина, предок, вес); для остальных статусов - int длина и текст ошибки в UTF-8.
+ */
+@Slf4j
+public final class MstServer implements AutoCloseable {
+    public static final byte OK = 0;
+    public static final byte BAD_REQUEST = 1; // запрос некорректен; после неверной длины кадра соединение закрывается
+    public static final byte BUSY = 2; // сервер перегружен, запрос можно повторить позже
+    public static final byte FAILED = 3; // внутренняя ошибка сервера
+
+    public static final int DEFAULT_MAX_FRAME_BYTES = 64 << 20;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30_000;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES; // V, стартовая вершина и E
+    private static final int EDGE_BYTES = 3 * Integer.BYTES;
+    private static final int HEAP_BYTES_PER_FRAME_BYTE = 5; // кадр, построитель графа и CSR
+    private static final int HEAP_BYTES_PER_VERTEX = 32; // смещения CSR, результат и рабочая область Прима
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final PrimSolver solver;
+    private final Semaphore running; // разрешения на выполнение алгоритма
+    private final AtomicInteger admitted = new AtomicInteger(); // запросы, которые выполняются или ждут
+    private final AtomicLong admittedBytes = new AtomicLong(); // оценка памяти этих запросов
+    private final int maxAdmitted;
+    private final long maxAdmittedBytes;
+    private final int maxFrameBytes;
+    private final int maxVertices;
+    private final int readTimeoutMillis;
+
+    /**
+     * Сервер на loopback-интерфейсе с настройками по количеству ядер.
+     * @param port порт; 0 - любой свободный, см. {@link #getPort()}
+     */
+    public MstServer(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors(), 64 * Runtime.getRuntime().availableProcessors(),
+                DEFAULT_MAX_FRAME_BYTES);
+    }
+
+    /**
+     * Бюджет памяти принятых запросов - половина наибольшего размера кучи.
+     * @see #MstServer(int, int, int, int, long)
+     */
+    public MstServer(int port, int maxConcurrent, int queueCapacity, int maxFrameBytes) throws IOException {
+        this(port, maxConcurrent, queueCapacity, maxFrameBytes, Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * Рёбра запроса ждутся не дольше {@link #DEFAULT_READ_TIMEOUT_MILLIS}.
+     * @see #MstServer(int, int, int, int, long, int)
+     */
+    public MstServer(int port, int maxConcurrent, int queueCapacity, int maxFrameBytes, long maxAdmittedBytes)
+            throws IOException {
+        this(port, maxConcurrent, queueCapacity, maxFrameBytes, maxAdmittedBytes, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param maxConcurrent наибольшее количество одновременно выполняемых запросов
+     * @param queueCapacity наибольшее количество принятых запросов, ожидающих выполнения
+     * @param maxFrameBytes наибольшая длина кадра запроса в байтах
+     * @param maxAdmittedBytes наибольшая суммарная оценка памяти принятых запросов в байтах
+     * @param readTimeoutMillis за сколько миллисекунд должны прийти рёбра принятого запроса
+     */
+    public MstServer(int port, int maxConcurrent, int queueCapacity, int maxFrameBytes, long maxAdmittedBytes,
+                     int readTimeoutMillis) throws IOException {
+        if (maxConcurrent <= 0 || queueCapacity < 0 || maxFrameBytes < HEADER_BYTES || maxAdmittedBytes <= 0
+                || readTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(("Incorrect server limits: %d running, %d queued, %d bytes per frame,"
+                    + " %d bytes in total, %d ms to read").formatted(maxConcurrent, queueCapacity, maxFrameBytes,
+                    maxAdmittedBytes, readTimeoutMillis));
+        }
+        this.solver = new PrimSolver(maxConcurrent, 0);
+        this.running = new Semaphore(maxConcurrent, true);
+        this.maxAdmitted = maxConcurrent + queueCapacity;
+        this.maxAdmittedBytes = maxAdmittedBytes;
+        this.maxFrameBytes = maxFrameBytes;
+        this.maxVertices = maxFrameBytes / Integer.BYTES;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Принимает соединения в текущем потоке, пока сервер не будет закрыт.
+     */
+    public void serve() {
+        log.info("MST server is listening on {}", serverSocket.getLocalSocketAddress());
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Failed to accept a connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Запускает {@link #serve()} в отдельном потоке.
+     */
+    public void start() {
+        Thread.ofPlatform().name("mst-server-accept").daemon().start(this::serve);
+    }
+
+    /**
+     * Перестаёт принимать соединения и прерывает потоки открытых соединений.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow(); // прерывание виртуального потока закрывает его сокет
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return; // клиент закрыл соединение между запросами
+                }
+                if (length < HEADER_BYTES || length > maxFrameBytes) {
+                    writeError(out, BAD_REQUEST, "Frame length %d is out of range [%d, %d]"
+                            .formatted(length, HEADER_BYTES, maxFrameBytes));
+                    return; // границы следующего кадра неизвестны
+                }
+                int vertexCount = in.readInt();
+                int startVertex = in.readInt();
+                int edgeCount = in.readInt();
+                int edgeBytes = length - HEADER_BYTES;
+                long cost;
+                try {
+                    cost = checkHeader(vertexCount, startVertex, edgeCount, edgeBytes, length);
+                } catch (IllegalArgumentException e) {
+                    in.skipNBytes(edgeBytes);
+                    writeError(out, BAD_REQUEST, e.getMessage());
+                    continue;
+                }
+                if (!admit(cost)) {
+                    in.skipNBytes(edgeBytes);
+                    writeError(out, BUSY, "Server is overloaded");
+                    continue;
+                }
+                try {
+                    byte[] edges = new byte[edgeBytes];
+                    readEdges(socket, in, edges);
+                    respond(vertexCount, startVertex, edgeCount, ByteBuffer.wrap(edges), out);
+                } catch (SocketTimeoutException e) {
+                    writeError(out, BAD_REQUEST, e.getMessage());
+                    return; // остаток кадра не прочитан
+                } finally {
+                    admittedBytes.addAndGet(-cost);
+                    admitted.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SocketException | EOFException e) {
+            log.debug("Connection closed: {}", e.getMessage());
+        } catch (IOException e) {
+            log.warn("Connection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет заголовок запроса до чтения рёбер, чтобы некорректный или слишком большой запрос
+     * не занимал память.
+     * @return оценка памяти, которая понадобится запросу, в байтах
+     * @throws IllegalArgumentException если запрос некорректен или не уместится в бюджет памяти сервера
+     */
+    private long checkHeader(int vertexCount, int startVertex, int edgeCount, int edgeBytes, int length) {
+        if (vertexCount <= 0 || vertexCount > maxVertices) {
+            throw new IllegalArgumentException("Vertex count %d is out of range [1, %d]"
+                    .formatted(vertexCount, maxVertices));
+        }
+        if (edgeCount < 0 || edgeBytes != (long) edgeCount * EDGE_BYTES) {
+            throw new IllegalArgumentException("Frame has %d bytes for %d edges".formatted(edgeBytes, edgeCount));
+        }
+        if (startVertex < 0 || startVertex >= vertexCount) {
+            throw new IllegalArgumentException("Start vertex %d is out of range [0, %d)"
+                    .formatted(startVertex, vertexCount));
+        }
+        long cost = (long) HEAP_BYTES_PER_FRAME_BYTE * length + (long) HEAP_BYTES_PER_VERTEX * vertexCount;
+        if (cost > maxAdmittedBytes) {
+            throw new IllegalArgumentException("Request needs about %d bytes, server limit is %d"
+                    .formatted(cost, maxAdmittedBytes));
+        }
+        return cost;
+    }
+
+    /**
+     * Читает рёбра принятого запроса. Таймаут сокета - это время ожидания одного чтения, поэтому перед каждым
+     * чтением он уменьшается до остатка общего срока, и клиент, присылающий по байту, тоже не задержит запрос.
+     * @throws SocketTimeoutException если рёбра не пришли за readTimeoutMillis
+     */
+    private void readEdges(Socket socket, DataInputStream in, byte[] edges) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis);
+        int read = 0;
+        while (read < edges.length) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) {
+                throw new SocketTimeoutException("Request edges were not received in %d ms"
+                        .formatted(readTimeoutMillis));
+            }
+            socket.setSoTimeout((int) left);
+            int count;
+            try {
+                count = in.read(edges, read, edges.length - read);
+            } catch (SocketTimeoutException e) {
+                continue; // срок истёк, исключение с текстом для клиента бросится в начале цикла
+            }
+            if (count < 0) {
+                throw new EOFException("Connection closed in the middle of a request");
+            }
+            read += count;
+        }
+        socket.setSoTimeout(0); // между запросами соединение может простаивать сколько угодно
+    }
+
+    /**
+     * Принимает запрос, если не превышен ни лимит количества запросов, ни бюджет памяти.
+     */
+    private boolean admit(long cost) {
+        if (admitted.incrementAndGet() > maxAdmitted) {
+            admitted.decrementAndGet();
+            return false;
+        }
+        if (admittedBytes.addAndGet(cost) > maxAdmittedBytes) {
+            admittedBytes.addAndGet(-cost);
+            admitted.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void respond(int vertexCount, int startVertex, int edgeCount, ByteBuffer edges, DataOutputStream out)
+            throws IOException, InterruptedException {
+        CsrGraph graph;
+        try {
+            CsrGraph.Builder builder = CsrGraph.builder(vertexCount);
+            for (int e = 0; e < edgeCount; e++) {
+                int from = edges.getInt();
+                int to = edges.getInt();
+                int weight = edges.getInt();
+                if (weight != 0) {
+                    builder.addEdge(from, to, weight);
+                }
+            }
+            graph = builder.build();
+        } catch (RuntimeException e) {
+            writeError(out, BAD_REQUEST, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        MstResult result;
+        running.acquire();
+        try {
+            long start = MstMetrics.startStage();
+            result = solver.solve(graph, startVertex);
+            MstMetrics.endStage(MstMetrics.Stage.ENGINE, start, graph.getVertexCount(), graph.getEdgeCount());
+        } catch (RuntimeException e) {
+            log.error("Request failed", e);
+            writeError(out, FAILED, String.valueOf(e.getMessage()));
+            return;
+        } finally {
+            running.release();
+        }
+        writeResult(out, result);
+    }
+
+    private static void writeResult(DataOutputStream out, MstResult result) throws IOException {
+        out.writeInt(1 + Integer.BYTES + Long.BYTES + Integer.BYTES + result.getEdgeCount() * EDGE_BYTES);
+        out.writeByte(OK);
+        out.writeInt(result.getVertexCount());
+        out.writeLong(result.getTotalWeight());
+        out.writeInt(result.getEdgeCount());
+        for (int v = 0; v < result.getVertexCount(); v++) {
+            if (result.getParent(v) >= 0) {
+                out.writeInt(v);
+                out.writeInt(result.getParent(v));
+                out.writeInt(result.getWeight(v));
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeError(DataOutputStream out, byte status, String message) throws IOException {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(1 + Integer.BYTES + text.length);
+        out.writeByte(status);
+        out.writeInt(text.length);
+        out.write(text);
+        out.flush();
+    }
+}
@@ -0,0 +1,34 @@
+package org.axerold;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR об окончании этапа конвейера. Записывается в любую запись JFR (например, запущенную флагом
+ * {@code -XX:StartFlightRecording} или командой {@code jcmd <pid> JFR.start}); пока записи нет,
+ * событие не создаётся.
+ */
+@Name("org.axerold.MstStage")
+@Label("MST Pipeline Stage")
+@Category("MST")
+@Description("Duration and size of one stage of the minimum spanning tree pipeline")
+@StackTrace(false)
+public final class MstStageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Edges")
+    long edges;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,246 @@
+package org.axerold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковая запись результата работы алгоритма в файл. <br>
+ * Текст кодируется сразу в байты в одном переиспользуемом буфере, который сбрасывается в FileChannel
+ * по мере заполнения, поэтому ни строка с результатом целиком, ни строки для отдельных чисел не создаются.
+ * Поддерживаемые форматы - см. {@link Format}.
+ */
+public final class MstWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_INT_LENGTH = 11; // "-2147483648"
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[MAX_INT_LENGTH]; // буфер для записи одного числа
+
+    /**
+     * Формат вывода.
+     */
+    public enum Format {
+        /**
+         * Текст, как в output.txt: сводка по весу и матрица весов дерева. Объём вывода - O(V²),
+         * но сама матрица в памяти не строится.
+         */
+        MATRIX,
+        /**
+         * Список рёбер дерева в формате {@link EdgeListReader}: "V v", затем строки "u v w".
+         * Объём вывода - O(V), а файл можно снова прочитать как граф.
+         */
+        EDGE_LIST,
+        /**
+         * Дерево в бинарном формате {@link BinaryGraphFormat}.
+         */
+        BINARY;
+
+        /**
+         * Выбирает формат по расширению файла: .csr - бинарный, .edges - список рёбер.
+         * @param defaultFormat формат для остальных расширений
+         */
+        public static Format forPath(Path path, Format defaultFormat) {
+            String fileName = path.getFileName().toString();
+            if (fileName.endsWith(".csr")) {
+                return BINARY;
+            }
+            if (fileName.endsWith(".edges")) {
+                return EDGE_LIST;
+            }
+            return defaultFormat;
+        }
+    }
+
+    private MstWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Записывает результат работы алгоритма на графе в файл.
+     * @throws IllegalArgumentException если алгоритм на графе ещё не запускался
+     */
+    public static void write(Graph graph, Path path, Format format) throws IOException {
+        MstResult result = graph.getMstResult();
+        if (graph.isValid() && result == null) {
+            throw new IllegalArgumentException("Minimum spanning tree is not built yet");
+        }
+        if (format == Format.BINARY && graph.isValid()) {
+            BinaryGraphFormat.write(toCsr(result), firstRoot(result), path);
+            return;
+        }
+        try (MstWriter writer = new MstWriter(path)) {
+            if (!graph.isValid()) {
+                writer.putText(graph.getSummary());
+            } else if (format == Format.MATRIX) {
+                writer.putText(graph.getSummary());
+                writer.writeMatrix(result);
+            } else {
+                writer.writeEdgeList(result);
+            }
+        }
+    }
+
+    /**
+     * Открывает файл для потоковой записи рёбер в формате {@link Format#EDGE_LIST}, когда дерево целиком
+     * в памяти не хранится (см. {@link ExternalKruskal}). Заголовок записывается сразу.
+     * @param startVertex стартовая вершина для заголовка
+     */
+    public static MstWriter openEdgeList(Path path, int vertexCount, int startVertex) throws IOException {
+        MstWriter writer = new MstWriter(path);
+        try {
+            writer.putInt(vertexCount);
+            writer.putByte(' ');
+            writer.putInt(startVertex);
+            writer.putByte('\n');
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    /**
+     * Записывает одно ребро строкой "u v w" с нумерацией вершин с единицы.
+     * @param from вершина, нумерация с нуля
+     * @param to вершина, нумерация с нуля
+     */
+    public void writeEdge(int from, int to, int weight) throws IOException {
+        putInt(from + 1);
+        putByte(' ');
+        putInt(to + 1);
+        putByte(' ');
+        putInt(weight);
+        putByte('\n');
+    }
+
+    /**
+     * Строки матрицы формируются по массиву предков: ненулевые элементы строки i - это ребро до предка
+     * и рёбра до потомков. Потомки раскладываются по вершинам сортировкой подсчётом, поэтому
+     * в каждой строке они уже упорядочены по возрастанию.
+     */
+    private void writeMatrix(MstResult result) throws IOException {
+        int n = result.getVertexCount();
+        int[] childStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (result.getParent(v) >= 0) {
+                childStart[result.getParent(v) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            childStart[v + 1] += childStart[v];
+        }
+        int[] children = new int[childStart[n]];
+        int[] next = new int[n];
+        for (int v = 0; v < n; v++) {
+            int parent = result.getParent(v);
+            if (parent >= 0) {
+                children[childStart[parent] + next[parent]++] = v;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int parent = result.getParent(i);
+            int child = childStart[i];
+            for (int j = 0; j < n; j++) {
+                int weight = 0;
+                if (j == parent) {
+                    weight = result.getWeight(i);
+                } else if (child < childStart[i + 1] && children[child] == j) {
+                    weight = result.getWeight(j);
+                    child++;
+                }
+                putInt(weight);
+                putByte(j == n - 1 ? '\n' : ' ');
+            }
+        }
+    }
+
+    private void writeEdgeList(MstResult result) throws IOException {
+        putInt(result.getVertexCount());
+        putByte(' ');
+        putInt(firstRoot(result));
+        putByte('\n');
+        for (int v = 0; v < result.getVertexCount(); v++) {
+            int parent = result.getParent(v);
+            if (parent >= 0) {
+                writeEdge(v, parent, result.getWeight(v));
+            }
+        }
+    }
+
+    private static CsrGraph toCsr(MstResult result) {
+        CsrGraph.Builder builder = CsrGraph.builder(result.getVertexCount());
+        result.forEachEdge(builder::addEdge);
+        return builder.build();
+    }
+
+    /**
+     * @return корень первого дерева - стартовая вершина для записанного дерева
+     */
+    private static int firstRoot(MstResult result) {
+        for (int v = 0; v < result.getVertexCount(); v++) {
+            if (result.getParent(v) < 0) {
+                return v;
+            }
+        }
+        return 0;
+    }
+
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < MAX_INT_LENGTH) {
+            flush();
+        }
+        int position = MAX_INT_LENGTH;
+        long rest = Math.abs((long) value);
+        do {
+            digits[--position] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest > 0);
+        if (value < 0) {
+            digits[--position] = '-';
+        }
+        buffer.put(digits, position, MAX_INT_LENGTH - position);
+    }
+
+    private void putByte(char value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) value);
+    }
+
+    private void putText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
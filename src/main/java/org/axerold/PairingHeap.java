@@ -0,0 +1,171 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Индексированная pairing heap (Фредман, Седжвик, Слейтор, Тарьян). <br>
+ * Добавление и уменьшение ключа выполняются за O(1) - это одно связывание двух деревьев, а вся работа
+ * по упорядочиванию откладывается до извлечения минимума (амортизированно O(log V)). Алгоритм Прима делает
+ * намного больше decrease-key, чем извлечений, поэтому на плотных графах это выгоднее двоичной кучи. <br>
+ * Узлы хранятся в массивах: первый потомок, следующий брат и предыдущий брат (у первого потомка -
+ * родитель). Порядок извлечения тот же, что у {@link CustomPriorityQueue}: при равных ключах первой
+ * извлекается вершина с меньшим индексом.
+ */
+public final class PairingHeap implements VertexQueue {
+    private static final int NONE = -1;
+
+    private final int[] keys; // keys[v] - текущий ключ вершины v
+    private final int[] child; // первый потомок
+    private final int[] sibling; // следующий брат
+    private final int[] previous; // предыдущий брат, либо родитель для первого потомка
+    private final boolean[] queued; // вершина находится в куче
+    private final int[] pairs; // рабочий массив для попарного слияния потомков при извлечении
+    private int root = NONE;
+    private int size;
+
+    /**
+     * @param capacity количество вершин графа. Индексы вершин должны лежать в диапазоне [0, capacity).
+     */
+    public PairingHeap(int capacity) {
+        keys = new int[capacity];
+        child = new int[capacity];
+        sibling = new int[capacity];
+        previous = new int[capacity];
+        queued = new boolean[capacity];
+        pairs = new int[capacity];
+        Arrays.fill(child, NONE);
+        Arrays.fill(sibling, NONE);
+        Arrays.fill(previous, NONE);
+    }
+
+    @Override
+    public void add(int vertex, int key) {
+        if (queued[vertex]) {
+            throw new IllegalArgumentException("Vertex %d is already queued".formatted(vertex));
+        }
+        keys[vertex] = key;
+        child[vertex] = NONE;
+        sibling[vertex] = NONE;
+        previous[vertex] = NONE;
+        queued[vertex] = true;
+        root = root == NONE ? vertex : link(root, vertex);
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int top = root;
+        queued[top] = false;
+        root = mergePairs(child[top]);
+        child[top] = NONE;
+        size--;
+        return top;
+    }
+
+    @Override
+    public void decreaseKey(int vertex, int key) {
+        if (key >= keys[vertex]) {
+            return;
+        }
+        keys[vertex] = key;
+        if (vertex == root) {
+            return;
+        }
+        // вырезаем поддерево вершины и связываем его с корнем
+        int before = previous[vertex];
+        if (child[before] == vertex) {
+            child[before] = sibling[vertex];
+        } else {
+            sibling[before] = sibling[vertex];
+        }
+        if (sibling[vertex] != NONE) {
+            previous[sibling[vertex]] = before;
+        }
+        sibling[vertex] = NONE;
+        previous[vertex] = NONE;
+        root = link(root, vertex);
+    }
+
+    @Override
+    public boolean contains(int vertex) {
+        return queued[vertex];
+    }
+
+    @Override
+    public int getKey(int vertex) {
+        return keys[vertex];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    /**
+     * Связывает два корня: больший становится первым потомком меньшего.
+     * @return новый корень
+     */
+    private int link(int a, int b) {
+        if (less(b, a)) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != NONE) {
+            previous[first] = b;
+        }
+        previous[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    /**
+     * Двухпроходное слияние списка братьев: сначала соседние деревья связываются попарно слева направо,
+     * затем пары - справа налево в одно дерево.
+     */
+    private int mergePairs(int first) {
+        int count = 0;
+        int current = first;
+        while (current != NONE) {
+            int second = sibling[current];
+            if (second == NONE) {
+                detach(current);
+                pairs[count++] = current;
+                break;
+            }
+            int next = sibling[second];
+            detach(current);
+            detach(second);
+            pairs[count++] = link(current, second);
+            current = next;
+        }
+        if (count == 0) {
+            return NONE;
+        }
+        int result = pairs[--count];
+        while (count > 0) {
+            result = link(pairs[--count], result);
+        }
+        return result;
+    }
+
+    private void detach(int node) {
+        sibling[node] = NONE;
+        previous[node] = NONE;
+    }
+}
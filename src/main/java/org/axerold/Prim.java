@@ -1,7 +1,6 @@
 package org.axerold;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
 // предупреждений и взаимодействия с пользователем
 
@@ -15,16 +14,33 @@ import lombok.extern.slf4j.Slf4j; // библиотека используетс
  */
 
 @Slf4j
-public class Prim {
+public class Prim implements MstEngine {
     private final Graph graph;
 
-    private final CustomPriorityQueue priorityQueue = new CustomPriorityQueue(); // вместо основного PriorityQueue
-    // использую простую обёртку ArrayList, чтобы на каждом шагу была возможность отсортировать изменившиеся значения.
+    private final PrimWorkspace workspace; // очередь с приоритетом и отметки вершин, вошедших в MST
 
-    private final Set<Edge> minimumSpanningTreeEdges = new HashSet<>(); // множество рёбер MST
+    private final int[] parent; // parent[v] - предок вершины v в MST, -1 для корня
+    private final int[] parentWeight; // вес ребра от вершины v до предка
 
+    /**
+     * Очередь с приоритетом выбирается системным свойством {@value QueueType#QUEUE_PROPERTY},
+     * по умолчанию - двоичная куча.
+     */
     public Prim(Graph graph) {
+        this(graph, QueueType.select(graph.getCsrGraph()));
+    }
+
+    /**
+     * @param queueType очередь с приоритетом; корзины заменяются двоичной кучей, если веса в них не помещаются
+     */
+    public Prim(Graph graph, QueueType queueType) {
         this.graph = graph;
+        int n = graph.getVertexCount();
+        QueueType queue = QueueType.checkWeights(queueType, graph.getCsrGraph());
+        int maxKey = queue == QueueType.BUCKET ? QueueType.maxWeight(graph.getCsrGraph()) : 0;
+        this.workspace = new PrimWorkspace(n, queue, maxKey);
+        this.parent = new int[n];
+        this.parentWeight = new int[n];
     }
 
     /**
@@ -32,77 +48,51 @@ public class Prim {
      * Важно учитывать, что при наличии равных путей (включая равные рёбра) может получиться
      * разное дерево при выборе разных вершин (но его вес всегда будет минимален).
      */
+    @Override
     public void run() {
-        int vertexIndex = (int) (Math.random() * graph.getVertices().size());
+        int vertexIndex = (int) (Math.random() * graph.getVertexCount());
         run(vertexIndex); // после выбора вершины вызываем основную функцию
     }
 
     /**
      * Собственно, в этой функции и реализован алгоритм Прима. <br>
+     * Алгоритм работает напрямую с массивами CSR графа, объекты Vertex и Edge не создаются.
+     * Сам цикл алгоритма выполняет {@link PrimWorkspace}. <br>
      * Краткая суть алгоритма:
      * <p>
-     * 0. Каждой вершине присваиваем +inf, как расстояние до MST, и null в качестве предшествующей вершины из MST. <br>
-     * Это мы сделали ещё при инициализации вершин <br>
+     * 0. Каждой вершине присваиваем +inf, как расстояние до MST, и -1 в качестве предшествующей вершины из MST. <br>
      * Заполняем очередь всеми вершинами из графа. <br>
      * Выбранная стартовая вершина - корень искомого дерева. Присваиваем ей 0, как расстояние до MST. <br>
      * <p>
-     * 1. Сортируем очередь по расстоянию до MST и выбираем вершину с наименьшим расстоянием до MST.
+     * 1. Извлекаем из очереди вершину с наименьшим расстоянием до MST.
      * <p>
      * 2. От неё перебираем все смежные вершины, задавая каждой расстояние до MST (попросту вес ребра от
      * последней вершины, вошедшей в MST до смежной с ней, ещё не входящей).
      * <p>
      * 2.1 Если расстояние до смежной вершины меньше веса ребра от выбранной вершины до неё и смежная вершина ещё не
      * рассмотрена, то задаём расстояние, как вес пресловутого ребра, в качестве предка устанавливаем выбранную вершину.
+     * Новое расстояние сразу передаётся в очередь (decrease-key), пересортировка всей очереди не нужна.
      * <p>
-     * 3. По результатам итерации на шаге 2 выбираем вершину, как в шаге 1 и добавляем ребро от неё
-     * до её предка в множество рёбер MST.
+     * 3. По результатам итерации на шаге 2 выбираем вершину, как в шаге 1. Ребро от неё до её предка
+     * входит в MST.
      * <p>
      * 4. Повторяем шаги 2-3, пока есть нерасмотренные вершины.<br>
      * Если нерасмотренных вершин больше нет, то заканчиваем работу.
      * <p>
      * @param startVertex стартовая вершина
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
      */
+    @Override
     public void run(int startVertex) {
-        var vertices = graph.getVertices();
-
-        vertices.get(startVertex).setDistance(0); // задаём для стартовой вершины расстояние до MST 0, поскольку
-        // она будет корнем для него.
-        priorityQueue.addAll(vertices); // добавляем в очередь все вершины. В силу реализации очередь сразу отсортирует
-        // все вершины по расстоянию до MST, и стартовая вершина окажется первой.
-        var vertex = priorityQueue.remove(); // вытягиваем из очереди непосредственно стартовую вершину.
-
-        // Выполняем итерации цикла, пока не будут рассмотрены все вершины
-        while (!priorityQueue.isEmpty()) {
-            for (var e : vertex.getAdjacentEdges()) { // пробегаемся по инцидентным вершине рёбрам
-                Vertex adjacentVertex = e.getAnotherVertex(vertex); // для выбранного ребра получаем вторую вершину
-
-                // если эта вершина всё ещё в очереди и вес ребра меньше, чем расстояние вершины до MST (по умолчанию
-                // - бесконечность)
-                if (priorityQueue.contains(adjacentVertex) && e.getWeight() < adjacentVertex.getDistance()) {
-                    adjacentVertex.setDistance(e.getWeight()); // обновляем расстояние до MST
-                    adjacentVertex.setAncestor(vertex); // задаём предка
-                }
-            }
-            priorityQueue.updateOrder(); // после прохода по всем смежным вершинам мы обновили у них расстояния до MST
-            // и логично будет отсортировать вершины, для того, чтобы выбрать ту, что будет ближе всего к MST.
-
-            vertex = priorityQueue.remove(); // выбираем вершину, до которой идёт ребро с наименьшим весом
-            try {
-                minimumSpanningTreeEdges.add(vertex.getAncestor().getEdgeByAdjacentVertex(vertex)); // если мы
-                // рассматриваем связный граф, то здесь мы просто добавляем пресловутое ребро с наименьшим весом.
-            } catch (NullPointerException e) {
-                // если функция выкидывает исключение нулевого элемента, это значит, что граф несвязен и вместо поиска
-                // MST мы ищем лес из MST. Всё потому, что в выбранную вершину не ведёт никаких рёбер из рассмотренных
-                // ранее вершин, а значит, мы не могли установить её предка.
-                log.warn("Forest case, no edges appending in mst");
-            }
+        Objects.checkIndex(startVertex, graph.getVertexCount());
+        int trees = workspace.run(graph.getCsrGraph(), startVertex, parent, parentWeight);
+        if (trees > 1) {
+            log.info("Forest of {} minimum spanning trees is built", trees);
         }
-        makeResultTree(); // просто помечаем все рёбра из множества, как принадлежащие к MST
+        makeResultTree(); // передаём полученное дерево графу
     }
 
     public void makeResultTree() {
-        for (var e: minimumSpanningTreeEdges) {
-            e.setBelongsToTree(true);
-        }
+        graph.setSpanningForest(parent, parentWeight);
     }
 }
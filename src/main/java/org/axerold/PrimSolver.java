@@ -0,0 +1,96 @@
+package org.axerold;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасный решатель на основе алгоритма Прима для обслуживания множества запросов. <br>
+ * В отличие от {@link Prim}, решатель не связан с графом и ничего в граф не записывает: граф (например, CSR)
+ * только читается, поэтому один неизменяемый граф могут одновременно обрабатывать сколько угодно потоков.
+ * Состояние запуска хранится в {@link PrimWorkspace}, которые берутся из общего пула и возвращаются в него
+ * после запуска. Пул, а не ThreadLocal, выбран ради виртуальных потоков: их могут быть миллионы,
+ * и рабочая область на каждый поток не переиспользовалась бы. <br>
+ * Количество рабочих областей в пуле ограничено; если все заняты, создаётся новая, а лишние после
+ * возврата выбрасываются.
+ */
+public final class PrimSolver {
+    private final ConcurrentLinkedDeque<PrimWorkspace> pool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooled = new AtomicInteger(); // количество областей в пуле
+    private final int maxPooled;
+    private final int initialCapacity;
+
+    /**
+     * @param maxPooled наибольшее количество простаивающих рабочих областей, например, число ядер
+     * @param initialCapacity количество вершин, на которое рассчитываются новые рабочие области
+     */
+    public PrimSolver(int maxPooled, int initialCapacity) {
+        if (maxPooled <= 0 || initialCapacity < 0) {
+            throw new IllegalArgumentException("Incorrect pool size %d or capacity %d"
+                    .formatted(maxPooled, initialCapacity));
+        }
+        this.maxPooled = maxPooled;
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Строит MST графа. Граф при этом не изменяется.
+     * @throws IllegalArgumentException если граф некорректен
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    public MstResult solve(Graph graph, int startVertex) {
+        if (!graph.isValid()) {
+            throw new IllegalArgumentException("Graph doesn't satisfy Prim algorithm's requirements");
+        }
+        return solve(graph.getCsrGraph(), startVertex);
+    }
+
+    /**
+     * Строит MST графа. Выделяется память только под результат.
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    public MstResult solve(SparseGraph graph, int startVertex) {
+        int n = graph.getVertexCount();
+        int[] parent = new int[n];
+        int[] parentWeight = new int[n];
+        solve(graph, startVertex, parent, parentWeight);
+        return new MstResult(parent, parentWeight);
+    }
+
+    /**
+     * Строит MST графа в переданные массивы, без выделения памяти, если в пуле есть подходящая рабочая область.
+     * @param parent сюда записывается предок каждой вершины (-1 для корней), длина - не меньше V
+     * @param parentWeight сюда записывается вес ребра от вершины до предка
+     * @return количество деревьев в лесе
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     */
+    public int solve(SparseGraph graph, int startVertex, int[] parent, int[] parentWeight) {
+        PrimWorkspace workspace = acquire();
+        int trees = workspace.run(graph, startVertex, parent, parentWeight);
+        release(workspace); // после исключения область могла остаться в неполном состоянии и в пул не вернётся
+        return trees;
+    }
+
+    /**
+     * @return количество простаивающих рабочих областей
+     */
+    public int getPooledCount() {
+        return pooled.get();
+    }
+
+    private PrimWorkspace acquire() {
+        PrimWorkspace workspace = pool.pollFirst();
+        if (workspace == null) {
+            return new PrimWorkspace(initialCapacity);
+        }
+        pooled.decrementAndGet();
+        return workspace;
+    }
+
+    private void release(PrimWorkspace workspace) {
+        if (pooled.incrementAndGet() <= maxPooled) {
+            pool.offerFirst(workspace); // последняя использованная область, скорее всего, ещё в кэше процессора
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
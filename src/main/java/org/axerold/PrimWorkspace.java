@@ -0,0 +1,110 @@
+package org.axerold;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Рабочие массивы одного запуска алгоритма Прима: очередь с приоритетом и отметки вершин, вошедших в дерево. <br>
+ * Граф и результат в рабочей области не хранятся, поэтому одну область можно использовать для многих запусков
+ * на разных графах подряд, без новых выделений памяти, пока граф помещается в её ёмкость. Одновременно
+ * область может использовать только один поток - для параллельной работы см. {@link PrimSolver}.
+ */
+public final class PrimWorkspace {
+    private static final int INFINITY = Integer.MAX_VALUE; // расстояние до MST у ещё не достигнутых вершин
+
+    private final QueueType queueType;
+    private final int maxKey; // наибольший вес ребра, нужен только очереди на корзинах
+    private VertexQueue priorityQueue; // индексированная очередь, после каждого запуска снова пустая
+    private boolean[] inTree; // inTree[v] - вершина v уже извлечена из очереди и вошла в MST
+
+    /**
+     * Рабочая область с двоичной кучей.
+     * @param capacity наибольшее количество вершин графа; при необходимости область расширяется
+     */
+    public PrimWorkspace(int capacity) {
+        this(capacity, QueueType.BINARY, 0);
+    }
+
+    /**
+     * @param capacity наибольшее количество вершин графа; при необходимости область расширяется
+     * @param queueType реализация очереди с приоритетом
+     * @param maxKey наибольший вес ребра во всех графах, которые будут обработаны этой областью
+     *               (для {@link QueueType#BUCKET})
+     */
+    public PrimWorkspace(int capacity, QueueType queueType, int maxKey) {
+        this.queueType = queueType;
+        this.maxKey = maxKey;
+        priorityQueue = queueType.create(capacity, maxKey);
+        inTree = new boolean[capacity];
+    }
+
+    public int getCapacity() {
+        return inTree.length;
+    }
+
+    /**
+     * Строит MST (или лес) алгоритмом Прима, см. описание в {@link Prim#run(int)}.
+     * @param parent сюда записывается предок каждой вершины (-1 для корней), длина - не меньше V
+     * @param parentWeight сюда записывается вес ребра от вершины до предка
+     * @return количество деревьев в лесе
+     * @throws IndexOutOfBoundsException если стартовой вершины нет в графе
+     * @throws IllegalArgumentException если вес ребра не помещается в очередь на корзинах
+     */
+    public int run(SparseGraph graph, int startVertex, int[] parent, int[] parentWeight) {
+        int n = graph.getVertexCount();
+        Objects.checkIndex(startVertex, n);
+        if (n > getCapacity()) {
+            priorityQueue = queueType.create(n, maxKey);
+            inTree = new boolean[n];
+        } else {
+            Arrays.fill(inTree, 0, n, false);
+        }
+
+        for (int v = 0; v < n; v++) { // добавляем в очередь все вершины. Стартовая вершина окажется на вершине
+            // кучи, поскольку только у неё расстояние до MST равно нулю.
+            parent[v] = -1;
+            priorityQueue.add(v, v == startVertex ? 0 : INFINITY);
+        }
+        int trees = 0; // количество деревьев в лесе
+        long relaxed = 0; // счётчики для MstMetrics считаются локально и передаются один раз за запуск
+        long decreases = 0;
+
+        // Выполняем итерации цикла, пока не будут рассмотрены все вершины. Первой извлекается стартовая вершина.
+        while (!priorityQueue.isEmpty()) {
+            int vertex = extractMin(parentWeight); // выбираем вершину, до которой идёт ребро с наименьшим весом
+            if (parent[vertex] < 0) {
+                // у выбранной вершины нет предка: это стартовая вершина либо вершина, в которую не ведёт никаких
+                // рёбер из рассмотренных ранее. Во втором случае граф несвязен и вместо MST мы ищем лес из MST.
+                trees++;
+            }
+
+            relaxed += graph.edgesEnd(vertex) - graph.edgesBegin(vertex);
+            for (int e = graph.edgesBegin(vertex); e < graph.edgesEnd(vertex); e++) { // пробегаемся по инцидентным
+                // вершине рёбрам
+                int adjacent = graph.getTarget(e); // для выбранного ребра получаем вторую вершину
+                int weight = graph.getWeight(e);
+
+                // если эта вершина ещё не вошла в MST и вес ребра меньше, чем расстояние вершины до MST (по умолчанию
+                // - бесконечность)
+                if (!inTree[adjacent] && weight < priorityQueue.getKey(adjacent)) {
+                    priorityQueue.decreaseKey(adjacent, weight); // обновляем расстояние до MST
+                    parent[adjacent] = vertex; // задаём предка
+                    decreases++;
+                }
+            }
+        }
+        MstMetrics.recordEngine(n, decreases, relaxed, n);
+        return trees;
+    }
+
+    /**
+     * Извлекает из очереди ближайшую к MST вершину и сразу отмечает её, как вошедшую в дерево.
+     * Ключ вершины в этот момент и есть вес ребра до её предка.
+     */
+    private int extractMin(int[] parentWeight) {
+        int index = priorityQueue.poll();
+        inTree[index] = true;
+        parentWeight[index] = priorityQueue.getKey(index);
+        return index;
+    }
+}
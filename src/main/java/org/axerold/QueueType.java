@@ -0,0 +1,96 @@
+package org.axerold;
+
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j; // библиотека используется для логгирования ошибок,
+// предупреждений и взаимодействия с пользователем
+
+/**
+ * Реализации очереди с приоритетом для алгоритма Прима. <br>
+ * Очередь выбирается системным свойством, например, {@code -Dprim.queue=bucket}. По умолчанию используется
+ * двоичная куча: её порядок извлечения при равных весах задан, и дерево всегда одно и то же. Значение
+ * {@code auto} выбирает очередь на корзинах, если наибольший вес ребра не больше {@link #BUCKET_MAX_KEY}.
+ * Заданные явно корзины на графе с весами вне [0, {@link #BUCKET_MAX_KEY}] заменяются двоичной кучей.
+ */
+@Slf4j
+public enum QueueType {
+    BINARY, // двоичная индексированная куча, O(log V) на все операции
+    PAIRING, // pairing heap, O(1) на decrease-key, амортизированно O(log V) на извлечение
+    BUCKET; // корзины по весам, O(1) на decrease-key, извлечение - просмотр битовой маски корзин
+
+    public static final String QUEUE_PROPERTY = "prim.queue";
+
+    /**
+     * Наибольший вес ребра, при котором в режиме {@code auto} выбираются корзины: 2^16 корзин - это 256 КиБ
+     * заголовков списков и 8 КиБ битовой маски, которые ещё помещаются в кэш второго уровня.
+     */
+    static final int BUCKET_MAX_KEY = 1 << 16;
+
+    /**
+     * @param capacity количество вершин
+     * @param maxKey наибольший вес ребра графа; используется только очередью на корзинах
+     */
+    public VertexQueue create(int capacity, int maxKey) {
+        return switch (this) {
+            case BINARY -> new CustomPriorityQueue(capacity);
+            case PAIRING -> new PairingHeap(capacity);
+            case BUCKET -> new BucketQueue(capacity, maxKey);
+        };
+    }
+
+    /**
+     * @return очередь, заданная системным свойством, либо двоичная куча
+     */
+    public static QueueType select(SparseGraph graph) {
+        String property = System.getProperty(QUEUE_PROPERTY, "binary").trim();
+        if (property.equalsIgnoreCase("auto")) {
+            return graph != null && fitsBuckets(graph) ? BUCKET : BINARY;
+        }
+        try {
+            return valueOf(property.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown priority queue '{}' in -D{}, binary heap is used", property, QUEUE_PROPERTY);
+            return BINARY;
+        }
+    }
+
+    /**
+     * @return type, либо двоичная куча, если это очередь на корзинах, а веса графа в корзины не помещаются:
+     * отрицательный вес сломал бы очередь посреди работы алгоритма, а огромный - занял бы всю память
+     */
+    public static QueueType checkWeights(QueueType type, SparseGraph graph) {
+        if (type == BUCKET && (graph == null || !fitsBuckets(graph))) {
+            log.warn("Edge weights do not fit in [0, {}] for bucket queue, binary heap is used", BUCKET_MAX_KEY);
+            return BINARY;
+        }
+        return type;
+    }
+
+    /**
+     * @return наибольший вес ребра графа, 0 для графа без рёбер
+     */
+    public static int maxWeight(SparseGraph graph) {
+        int max = 0;
+        for (int e = 0; e < edgeSlots(graph); e++) {
+            max = Math.max(max, graph.getWeight(e));
+        }
+        return max;
+    }
+
+    /**
+     * @return все веса рёбер лежат в [0, {@link #BUCKET_MAX_KEY}]
+     */
+    static boolean fitsBuckets(SparseGraph graph) {
+        for (int e = 0; e < edgeSlots(graph); e++) {
+            int weight = graph.getWeight(e);
+            if (weight < 0 || weight > BUCKET_MAX_KEY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int edgeSlots(SparseGraph graph) {
+        int n = graph.getVertexCount();
+        return n == 0 ? 0 : graph.edgesEnd(n - 1);
+    }
+}
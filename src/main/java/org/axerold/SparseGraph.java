@@ -0,0 +1,29 @@
+package org.axerold;
+
+/**
+ * Граф в формате CSR (compressed sparse row), независимо от того, где лежат его массивы:
+ * в обычных массивах Java ({@link CsrGraph}) или в отображённом в память файле ({@link MappedCsrGraph}).
+ * Рёбра, смежные с вершиной v, имеют номера из отрезка [edgesBegin(v), edgesEnd(v)).
+ * Каждое неориентированное ребро хранится дважды - по разу у каждого из концов.
+ * Вершины индексируются с нуля.
+ */
+public interface SparseGraph {
+    int getVertexCount();
+
+    /**
+     * @return количество неориентированных рёбер
+     */
+    int getEdgeCount();
+
+    int edgesBegin(int vertex);
+
+    int edgesEnd(int vertex);
+
+    int getTarget(int edge);
+
+    int getWeight(int edge);
+
+    default int getDegree(int vertex) {
+        return edgesEnd(vertex) - edgesBegin(vertex);
+    }
+}
@@ -0,0 +1,34 @@
+package org.axerold;
+
+/**
+ * Очередь вершин с приоритетом для алгоритма Прима. Элементы - индексы вершин из [0, capacity),
+ * ключ - расстояние до MST. Кроме обычных операций, очередь умеет уменьшать ключ уже добавленной вершины.
+ * Реализации выбираются через {@link QueueType}.
+ */
+public interface VertexQueue {
+    void add(int vertex, int key);
+
+    /**
+     * Извлекает вершину с наименьшим ключом.
+     * @return индекс извлечённой вершины
+     * @throws java.util.NoSuchElementException если очередь пуста
+     */
+    int poll();
+
+    /**
+     * Уменьшает ключ вершины, которая ещё находится в очереди.
+     * Если новый ключ не меньше текущего, ничего не происходит.
+     */
+    void decreaseKey(int vertex, int key);
+
+    boolean contains(int vertex);
+
+    /**
+     * @return текущий ключ вершины; для извлечённой вершины - ключ на момент извлечения
+     */
+    int getKey(int vertex);
+
+    boolean isEmpty();
+
+    int size();
+}
@@ -0,0 +1,81 @@
+package org.axerold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Проверяет, что пакетная обработка даёт те же деревья, что и {@link Prim}, возвращает каждую матрицу
+ * ровно один раз под её исходным индексом и не останавливается на некорректных матрицах.
+ */
+class BatchSolverTest {
+
+    @Test
+    void batchMatchesPrimAndKeepsIndices() {
+        // arrange
+        Random random = new Random(17);
+        List<int[][]> matrices = new ArrayList<>();
+        for (int k = 0; k < 2000; k++) {
+            int n = 1 + random.nextInt(24);
+            int[][] matrix = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (random.nextInt(3) == 0) {
+                        matrix[i][j] = 1 + random.nextInt(5); // много равных весов
+                        matrix[j][i] = matrix[i][j];
+                    }
+                }
+            }
+            if (k % 100 == 7 && n > 1) {
+                matrix[0][n - 1] = 1000; // несимметричная матрица
+            }
+            matrices.add(matrix);
+        }
+
+        // act
+        List<BatchSolver.Result> results;
+        try (BatchSolver solver = new BatchSolver(4)) {
+            results = solver.solve(matrices, 0).toList();
+        }
+
+        // assert
+        assertEquals(matrices.size(), results.size());
+        boolean[] seen = new boolean[matrices.size()];
+        for (BatchSolver.Result result : results) {
+            assertFalse(seen[result.index()]);
+            seen[result.index()] = true;
+            int[][] matrix = matrices.get(result.index());
+            Graph graph = new Graph(matrix);
+            if (!graph.isValid()) {
+                assertNull(result.mst());
+                continue;
+            }
+            MstResult expected = Main.modifyGraph(graph, 0, Prim::new).getMstResult();
+            assertArrayEquals(expected.toMatrix(), result.mst().toMatrix());
+        }
+    }
+
+    @Test
+    void lazyStreamLongerThanWindow() {
+        // arrange: матриц больше, чем одновременно отдаётся пулу
+        int[][] triangle = {{0, 1, 3}, {1, 0, 2}, {3, 2, 0}};
+
+        // act
+        long totalWeight;
+        try (BatchSolver solver = new BatchSolver(2)) {
+            totalWeight = solver.solve(Stream.generate(() -> triangle).limit(10_000), -1)
+                    .mapToLong(result -> result.mst().getTotalWeight())
+                    .sum();
+        }
+
+        // assert
+        assertEquals(30_000, totalWeight);
+    }
+}
@@ -0,0 +1,116 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет конвертацию матрицы весов в бинарный формат и работу алгоритма на отображённом в память графе.
+ */
+class BinaryGraphFormatTest {
+
+    @Test
+    void convertedInputMatchesMatrix() throws IOException {
+        // arrange
+        Path binary = Files.createTempFile("input", ".csr");
+        BinaryGraphFormat.convertMatrix(Path.of("src/test/input.txt"), binary);
+        int[][] initMatrix = {{0, 7, 0, 5, 0, 0, 0},
+                {7, 0, 8, 9, 7, 0, 0},
+                {0, 8, 0, 0, 5, 0, 0},
+                {5, 9, 0, 0, 15, 6, 0},
+                {0, 7, 5, 15, 0, 8, 9},
+                {0, 0, 0, 6, 8, 0, 11},
+                {0, 0, 0, 0, 9, 11, 0}
+        };
+
+        // act
+        MappedCsrGraph mappedGraph = BinaryGraphFormat.map(binary);
+        Graph graph = new Graph(mappedGraph);
+        Main.modifyGraph(graph, mappedGraph.getStartVertex());
+
+        // assert
+        assertEquals(3, mappedGraph.getStartVertex());
+        assertEquals(11, mappedGraph.getEdgeCount());
+        assertArrayEquals(Main.modifyWeightMatrix(initMatrix, 3), graph.retrieveModifiedWeightMatrix());
+        Files.delete(binary);
+    }
+
+    @Test
+    void orientedMatrixIsRejected() throws IOException {
+        // arrange
+        Path text = Files.createTempFile("oriented", ".txt");
+        Files.writeString(text, "3 0\r\n0 1 0\r\n0 0 2\r\n0 2 0");
+        Path binary = Files.createTempFile("oriented", ".csr");
+
+        // act, assert
+        assertThrows(IllegalArgumentException.class, () -> BinaryGraphFormat.convertMatrix(text, binary));
+        Files.delete(text);
+        Files.delete(binary);
+    }
+
+    /**
+     * Записывает число в бинарный файл графа поверх числа с номером index (считая от начала заголовка).
+     */
+    private static void overwrite(Path binary, int index, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+            channel.write(buffer.flip(), (long) index * Integer.BYTES);
+        }
+    }
+
+    @Test
+    void corruptedSectionsAreRejected() throws IOException {
+        // arrange: 7 вершин, заголовок из 6 чисел, затем 8 offsets и 22 targets
+        Path decreasing = Files.createTempFile("decreasing", ".csr");
+        BinaryGraphFormat.convertMatrix(Path.of("src/test/input.txt"), decreasing);
+        overwrite(decreasing, 6 + 2, 1);
+        Path outOfRange = Files.createTempFile("out-of-range", ".csr");
+        BinaryGraphFormat.convertMatrix(Path.of("src/test/input.txt"), outOfRange);
+        overwrite(outOfRange, 6 + 8 + 5, 7);
+
+        // act
+        IllegalArgumentException offsetsError = assertThrows(IllegalArgumentException.class,
+                () -> BinaryGraphFormat.map(decreasing));
+        IllegalArgumentException targetsError = assertThrows(IllegalArgumentException.class,
+                () -> BinaryGraphFormat.map(outOfRange));
+
+        // assert
+        assertTrue(offsetsError.getMessage().contains(decreasing.toString()));
+        assertTrue(targetsError.getMessage().contains(outOfRange.toString()));
+        Files.delete(decreasing);
+        Files.delete(outOfRange);
+    }
+
+    @Test
+    void asymmetricEntriesAreRejected() throws IOException {
+        // arrange: запись 0 - 1 веса 7 первая в targets (число 6 + 8) и в weights (число 6 + 8 + 22)
+        Path reweighted = Files.createTempFile("reweighted", ".csr");
+        BinaryGraphFormat.convertMatrix(Path.of("src/test/input.txt"), reweighted);
+        overwrite(reweighted, 6 + 8 + 22, 8);
+        Path redirected = Files.createTempFile("redirected", ".csr");
+        BinaryGraphFormat.convertMatrix(Path.of("src/test/input.txt"), redirected);
+        overwrite(redirected, 6 + 8, 2);
+
+        // act
+        IllegalArgumentException weightError = assertThrows(IllegalArgumentException.class,
+                () -> BinaryGraphFormat.map(reweighted));
+        IllegalArgumentException targetError = assertThrows(IllegalArgumentException.class,
+                () -> BinaryGraphFormat.map(redirected));
+
+        // assert
+        assertTrue(weightError.getMessage().contains("mirror"));
+        assertTrue(targetError.getMessage().contains(redirected.toString()));
+        Files.delete(reweighted);
+        Files.delete(redirected);
+    }
+}
@@ -0,0 +1,203 @@
+package org.axerold;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает инкрементальное обновление MST с пересчётом с нуля на случайных последовательностях обновлений.
+ */
+class DynamicMstTest {
+
+    private static long recomputedWeight(int[][] matrix) {
+        Graph graph = Main.modifyGraph(new Graph(matrix), 0, Prim::new);
+        return graph.getMstResult().getTotalWeight();
+    }
+
+    private static int[][] randomMatrix(Random random, int n, int edges) {
+        int[][] matrix = new int[n][n];
+        for (int k = 0; k < edges; k++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            if (i != j) {
+                matrix[i][j] = 1 + random.nextInt(100);
+                matrix[j][i] = matrix[i][j];
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    void insertionsAndDecreasesMatchRecomputation() {
+        // arrange: разреженный несвязный граф, чтобы вставки и сливали деревья, и вытесняли рёбра
+        Random random = new Random(21);
+        int n = 40;
+        int[][] matrix = randomMatrix(random, n, n);
+        DynamicMst dynamicMst = new DynamicMst(Main.modifyGraph(new Graph(matrix), 0, Kruskal::new));
+
+        for (int step = 0; step < 2000; step++) {
+            int i = random.nextInt(n);
+            int j = (i + 1 + random.nextInt(n - 1)) % n;
+            int weight = 1 + random.nextInt(100);
+
+            // act
+            if (matrix[i][j] != 0 && weight <= matrix[i][j]) {
+                dynamicMst.decreaseWeight(i, j, weight);
+            } else {
+                dynamicMst.insertEdge(i, j, weight);
+            }
+            if (matrix[i][j] == 0 || weight < matrix[i][j]) {
+                matrix[i][j] = weight;
+                matrix[j][i] = weight;
+            }
+
+            // assert
+            assertEquals(recomputedWeight(matrix), dynamicMst.getTotalWeight());
+        }
+        MstResult result = dynamicMst.toResult();
+        assertEquals(dynamicMst.getTotalWeight(), result.getTotalWeight());
+        assertEquals(dynamicMst.getEdgeCount(), result.getEdgeCount());
+    }
+
+    @Test
+    void heaviestCycleEdgeIsReplaced() {
+        // arrange: путь 0 - 1 - 2 - 3 с тяжёлым ребром 1 - 2
+        int[][] matrix = {{0, 1, 0, 0},
+                {1, 0, 9, 0},
+                {0, 9, 0, 1},
+                {0, 0, 1, 0}
+        };
+        DynamicMst dynamicMst = new DynamicMst(Main.modifyGraph(new Graph(matrix), 0));
+
+        // act
+        boolean heavierIgnored = !dynamicMst.insertEdge(0, 3, 10);
+        boolean lighterAccepted = dynamicMst.insertEdge(0, 3, 2);
+
+        // assert
+        assertTrue(heavierIgnored);
+        assertTrue(lighterAccepted);
+        assertFalse(dynamicMst.isTreeEdge(1, 2));
+        assertTrue(dynamicMst.isTreeEdge(3, 0));
+        assertEquals(4, dynamicMst.getTotalWeight());
+        assertThrows(IllegalArgumentException.class, () -> dynamicMst.decreaseWeight(0, 1, 5));
+    }
+
+    @Test
+    void fullyDynamicUpdatesMatchPrim() {
+        // arrange
+        Random random = new Random(33);
+        int n = 50;
+        int[][] matrix = randomMatrix(random, n, 2 * n);
+        DynamicMst dynamicMst = new DynamicMst(Main.modifyGraph(new Graph(matrix), 0, Prim::new));
+
+        for (int step = 0; step < 3000; step++) {
+            int i = random.nextInt(n);
+            int j = (i + 1 + random.nextInt(n - 1)) % n;
+            int current = matrix[i][j];
+
+            // act: удаления немного чаще вставок, чтобы граф распадался и снова собирался
+            int operation = random.nextInt(4);
+            if (current == 0) {
+                matrix[i][j] = 1 + random.nextInt(100);
+                dynamicMst.insertEdge(i, j, matrix[i][j]);
+            } else if (operation < 2) {
+                matrix[i][j] = 0;
+                dynamicMst.deleteEdge(i, j);
+            } else if (operation == 2) {
+                matrix[i][j] = current + random.nextInt(100);
+                dynamicMst.increaseWeight(i, j, matrix[i][j]);
+            } else {
+                matrix[i][j] = 1 + random.nextInt(current);
+                dynamicMst.decreaseWeight(i, j, matrix[i][j]);
+            }
+            matrix[j][i] = matrix[i][j];
+
+            // assert
+            assertEquals(recomputedWeight(matrix), dynamicMst.getTotalWeight(), "step " + step);
+        }
+        MstResult result = dynamicMst.toResult();
+        assertEquals(dynamicMst.getTotalWeight(), result.getTotalWeight());
+        result.forEachEdge((from, to, weight) -> assertEquals(matrix[from][to], weight));
+    }
+
+    @Test
+    void deletionsFromDenseGraphMatchPrim() {
+        // arrange: плотный граф с равными весами, все рёбра которого лежат в DecrementalMsf
+        Random random = new Random(45);
+        int n = 60;
+        int[][] matrix = new int[n][n];
+        int[] pairs = new int[n * (n - 1) / 2];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                matrix[i][j] = 1 + random.nextInt(3);
+                matrix[j][i] = matrix[i][j];
+                pairs[count++] = i * n + j;
+            }
+        }
+        DynamicMst dynamicMst = new DynamicMst(Main.modifyGraph(new Graph(matrix), 0, Prim::new));
+
+        for (int k = count - 1; k >= 0; k--) {
+            int swap = random.nextInt(k + 1);
+            int pair = pairs[swap];
+            pairs[swap] = pairs[k];
+            int i = pair / n;
+            int j = pair % n;
+
+            // act
+            dynamicMst.deleteEdge(i, j);
+            matrix[i][j] = 0;
+            matrix[j][i] = 0;
+
+            // assert
+            if (k % 50 == 0) {
+                assertEquals(recomputedWeight(matrix), dynamicMst.getTotalWeight(), "edges left " + k);
+            }
+        }
+        assertEquals(0, dynamicMst.getEdgeCount());
+    }
+
+    @Test
+    void publishedForestMarksGraphEdges() {
+        // arrange: треугольник с тяжёлым ребром 0 - 2 вне дерева
+        int[][] matrix = {{0, 1, 5},
+                {1, 0, 2},
+                {5, 2, 0}
+        };
+        Graph graph = Main.modifyGraph(new Graph(matrix), 0);
+        DynamicMst dynamicMst = new DynamicMst(graph);
+
+        // act
+        boolean replaced = dynamicMst.deleteEdge(1, 2);
+        dynamicMst.publish();
+
+        // assert
+        assertTrue(replaced);
+        assertEquals(6, graph.getMstResult().getTotalWeight());
+        for (Edge edge : graph.getEdges()) {
+            assertEquals(edge.getWeight() != 2, edge.doesBelongToTree());
+        }
+    }
+
+    @Test
+    void forestWithEdgesMissingFromGraphIsNotPublished() {
+        // arrange
+        int[][] matrix = {{0, 1, 5},
+                {1, 0, 2},
+                {5, 2, 0}
+        };
+        Graph graph = Main.modifyGraph(new Graph(matrix), 0);
+        DynamicMst dynamicMst = new DynamicMst(graph);
+
+        // act: ребро 0 - 2 становится легче, и в лесе оказывается вес, которого в графе нет
+        dynamicMst.decreaseWeight(0, 2, 1);
+
+        // assert
+        assertThrows(IllegalArgumentException.class, dynamicMst::publish);
+        assertEquals(3, graph.getMstResult().getTotalWeight());
+    }
+}
@@ -0,0 +1,117 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет чтение графа в формате списка рёбер: результат должен совпадать с результатом
+ * для той же матрицы весов.
+ */
+class EdgeListReaderTest {
+    private static final String WIKI_EDGES = """
+            7 3
+            1 2 7
+            1 4 5
+            2 3 8
+            2 4 9
+            2 5 7
+            3 5 5
+            4 5 15
+            4 6 6
+            5 6 8
+            5 7 9
+            6 7 11
+            """;
+
+    private static final int[][] WIKI_MATRIX = {{0, 7, 0, 5, 0, 0, 0},
+            {7, 0, 8, 9, 7, 0, 0},
+            {0, 8, 0, 0, 5, 0, 0},
+            {5, 9, 0, 0, 15, 6, 0},
+            {0, 7, 5, 15, 0, 8, 9},
+            {0, 0, 0, 6, 8, 0, 11},
+            {0, 0, 0, 0, 9, 11, 0}
+    };
+
+    private static int[][] solve(Path path) throws IOException {
+        try (EdgeListReader reader = new EdgeListReader(path)) {
+            Graph graph = new Graph(reader.readGraph());
+            Main.modifyGraph(graph, reader.getStartVertex());
+            return graph.retrieveModifiedWeightMatrix();
+        }
+    }
+
+    @Test
+    void plainEdgeList() throws IOException {
+        // arrange
+        Path path = Files.createTempFile("wiki", ".edges");
+        Files.writeString(path, WIKI_EDGES.replace("\n", "\r\n"));
+
+        // act
+        int[][] modifiedMatrix = solve(path);
+
+        // assert
+        assertArrayEquals(Main.modifyWeightMatrix(WIKI_MATRIX, 3), modifiedMatrix);
+        Files.delete(path);
+    }
+
+    @Test
+    void gzipEdgeList() throws IOException {
+        // arrange
+        Path path = Files.createTempFile("wiki", ".edges.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(WIKI_EDGES.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // act
+        int[][] modifiedMatrix = solve(path);
+
+        // assert
+        assertArrayEquals(Main.modifyWeightMatrix(WIKI_MATRIX, 3), modifiedMatrix);
+        Files.delete(path);
+    }
+
+    @Test
+    void largeEdgeListSpansSeveralBuffers() throws IOException {
+        // arrange: путь из 100000 вершин, файл заметно больше одного блока чтения
+        int n = 100_000;
+        StringBuilder text = new StringBuilder().append(n).append(" 0\n");
+        for (int i = 1; i < n; i++) {
+            text.append(i).append(' ').append(i + 1).append(' ').append(i % 100 + 1).append('\n');
+        }
+        Path path = Files.createTempFile("path", ".edges");
+        Files.writeString(path, text);
+
+        // act
+        CsrGraph csrGraph;
+        try (EdgeListReader reader = new EdgeListReader(path)) {
+            csrGraph = reader.readGraph();
+        }
+
+        // assert
+        assertEquals(n - 1, csrGraph.getEdgeCount());
+        assertEquals(2, csrGraph.getDegree(n / 2));
+        Files.delete(path);
+    }
+
+    @Test
+    void malformedEdgeList() throws IOException {
+        // arrange
+        Path path = Files.createTempFile("broken", ".edges");
+        Files.writeString(path, "3 0\n1 2 5\n2 x 4\n");
+
+        // act, assert
+        try (EdgeListReader reader = new EdgeListReader(path)) {
+            assertThrows(IllegalArgumentException.class, reader::readGraph);
+        }
+        Files.delete(path);
+    }
+}
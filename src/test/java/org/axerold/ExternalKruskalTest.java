@@ -0,0 +1,63 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что внешняя сортировка со сбросом на диск и слиянием даёт лес того же веса, что и алгоритм
+ * в памяти, и не оставляет временных файлов.
+ */
+class ExternalKruskalTest {
+
+    @Test
+    void externalForestMatchesInMemoryForest() throws IOException {
+        // arrange: две компоненты связности, много равных весов
+        int n = 2000;
+        Random random = new Random(29);
+        CsrGraph.Builder builder = CsrGraph.builder(n);
+        StringBuilder text = new StringBuilder(n + " 0\n");
+        for (int k = 0; k < 30_000; k++) {
+            int from = random.nextInt(n / 2) + (k % 2 == 0 ? 0 : n / 2);
+            int to = random.nextInt(n / 2) + (k % 2 == 0 ? 0 : n / 2);
+            if (from != to) {
+                int weight = 1 + random.nextInt(50);
+                builder.addEdge(from, to, weight);
+                text.append(from + 1).append(' ').append(to + 1).append(' ').append(weight).append('\n');
+            }
+        }
+        Path input = Files.createTempFile("input", ".edges");
+        Files.writeString(input, text);
+        Path output = Files.createTempFile("output", ".edges");
+        Path spillDirectory = Files.createTempDirectory("spill");
+        MstResult expected = new PrimSolver(1, n).solve(builder.build(), 0);
+
+        // act: маленький бюджет - много файлов и промежуточные слияния; большой - всё в памяти
+        ExternalKruskal.Summary external = new ExternalKruskal((1 << 16) + 4L * n, spillDirectory).run(input, output);
+        Graph tree;
+        try (EdgeListReader reader = new EdgeListReader(output)) {
+            tree = new Graph(reader.readGraph());
+        }
+        ExternalKruskal.Summary inMemory = new ExternalKruskal(1 << 24, spillDirectory).run(input, output);
+
+        // assert
+        assertTrue(external.runCount() > 3);
+        assertEquals(expected.getTotalWeight(), external.totalWeight());
+        assertEquals(expected.getEdgeCount(), external.edgeCount());
+        assertEquals(expected.getEdgeCount(), tree.getCsrGraph().getEdgeCount());
+        assertEquals(2, tree.getComponentCount());
+        assertEquals(0, inMemory.runCount());
+        assertEquals(expected.getTotalWeight(), inMemory.totalWeight());
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+        Files.delete(spillDirectory);
+        Files.delete(input);
+        Files.delete(output);
+    }
+}
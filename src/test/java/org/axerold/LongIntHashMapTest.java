@@ -0,0 +1,42 @@
+package org.axerold;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнивает хэш-таблицу с HashMap на случайной последовательности вставок и удалений.
+ */
+class LongIntHashMapTest {
+
+    @Test
+    void matchesHashMap() {
+        // arrange: мало различных ключей, чтобы удаления часто разрывали цепочки коллизий
+        Random random = new Random(5);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int step = 0; step < 100_000; step++) {
+            long key = (long) random.nextInt(64) << 32 | random.nextInt(64);
+
+            // act
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, step);
+                expected.put(key, step);
+            }
+
+            // assert
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.ABSENT).intValue(), map.get(key));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.axerold;
 
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Данный класс осуществляет тестирование с помощью модуля JUnit5. <br>
@@ -217,4 +221,303 @@ class MainTest {
         // assert
         assertNull(modifiedMatrix);
     }
-}
\ No newline at end of file
+
+    @Test
+    void denseAndHeapPrimAgree() {
+        Random random = new Random(42);
+        for (int n = 2; n < 40; n++) {
+            // arrange
+            int[][] initMatrix = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (random.nextInt(4) == 0) {
+                        initMatrix[i][j] = 1 + random.nextInt(5); // маленький диапазон весов - много равных рёбер
+                        initMatrix[j][i] = initMatrix[i][j];
+                    }
+                }
+            }
+            int startVertex = random.nextInt(n);
+
+            // act
+            Graph heapGraph = new Graph(initMatrix);
+            new Prim(heapGraph).run(startVertex);
+            Graph denseGraph = new Graph(initMatrix);
+            new DensePrim(denseGraph).run(startVertex);
+
+            // assert
+            assertArrayEquals(heapGraph.retrieveModifiedWeightMatrix(), denseGraph.retrieveModifiedWeightMatrix());
+        }
+    }
+
+    /**
+     * Случайная симметричная матрица весов. При distinctWeights все веса рёбер различны, и MST единственно.
+     */
+    private static int[][] randomMatrix(Random random, int n, int edgeChance, boolean distinctWeights) {
+        int[][] matrix = new int[n][n];
+        int weight = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                if (random.nextInt(edgeChance) == 0) {
+                    matrix[i][j] = distinctWeights ? ++weight : 1 + random.nextInt(5);
+                    matrix[j][i] = matrix[i][j];
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    void boruvkaAgreesWithPrim() {
+        Random random = new Random(7);
+        for (int n = 2; n < 60; n++) {
+            // arrange
+            int[][] distinct = randomMatrix(random, n, 6, true);
+            int[][] ties = randomMatrix(random, n, 6, false);
+
+            // act
+            Graph primDistinct = new Graph(distinct);
+            new Prim(primDistinct).run(0);
+            Graph boruvkaDistinct = new Graph(distinct);
+            new Boruvka(boruvkaDistinct).run(0);
+            Graph primTies = new Graph(ties);
+            new Prim(primTies).run(0);
+            Graph boruvkaTies = new Graph(ties);
+            new Boruvka(boruvkaTies).run(0);
+
+            // assert: при различных весах дерево одно и то же, при равных - совпадает хотя бы вес
+            assertArrayEquals(primDistinct.retrieveModifiedWeightMatrix(),
+                    boruvkaDistinct.retrieveModifiedWeightMatrix());
+            primTies.retrieveModifiedWeightMatrix();
+            boruvkaTies.retrieveModifiedWeightMatrix();
+            assertEquals(primTies.getMinimalSpanningTreeSummaryWeight(),
+                    boruvkaTies.getMinimalSpanningTreeSummaryWeight());
+        }
+    }
+
+    @Test
+    void kruskalAgreesWithPrim() {
+        Random random = new Random(11);
+        for (int n = 2; n < 60; n++) {
+            // arrange
+            int[][] distinct = randomMatrix(random, n, 6, true);
+
+            // act
+            int[][] expected = Main.modifyGraph(new Graph(distinct), 0, Prim::new).retrieveModifiedWeightMatrix();
+            int[][] kruskal = Main.modifyGraph(new Graph(distinct), 0, Kruskal::new).retrieveModifiedWeightMatrix();
+            int[][] filterKruskal = Main.modifyGraph(new Graph(distinct), 0, graph -> new Kruskal(graph, true))
+                    .retrieveModifiedWeightMatrix();
+
+            // assert
+            assertArrayEquals(expected, kruskal);
+            assertArrayEquals(expected, filterKruskal);
+        }
+    }
+
+    @Test
+    void queueTypesAgreeWithBinaryHeap() {
+        Random random = new Random(13);
+        for (int n = 2; n < 60; n++) {
+            // arrange
+            int[][] ties = randomMatrix(random, n, 4, false);
+            int[][] distinct = randomMatrix(random, n, 4, true);
+
+            // act
+            Graph binary = Main.modifyGraph(new Graph(ties), 0, graph -> new Prim(graph, QueueType.BINARY));
+            Graph pairing = Main.modifyGraph(new Graph(ties), 0, graph -> new Prim(graph, QueueType.PAIRING));
+            Graph bucketTies = Main.modifyGraph(new Graph(ties), 0, graph -> new Prim(graph, QueueType.BUCKET));
+            Graph bucketDistinct = Main.modifyGraph(new Graph(distinct), 0,
+                    graph -> new Prim(graph, QueueType.BUCKET));
+
+            // assert: pairing heap разрешает равенство ключей так же, как двоичная куча, а корзины - нет
+            assertArrayEquals(binary.retrieveModifiedWeightMatrix(), pairing.retrieveModifiedWeightMatrix());
+            bucketTies.retrieveModifiedWeightMatrix();
+            assertEquals(binary.getMinimalSpanningTreeSummaryWeight(),
+                    bucketTies.getMinimalSpanningTreeSummaryWeight());
+            assertArrayEquals(Main.modifyGraph(new Graph(distinct), 0, Prim::new).retrieveModifiedWeightMatrix(),
+                    bucketDistinct.retrieveModifiedWeightMatrix());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BucketQueue(1, 4).add(0, 5));
+    }
+
+    @Test
+    void bucketQueueFallsBackForUnfitWeights() {
+        // arrange: отрицательный вес и вес больше BUCKET_MAX_KEY
+        int[][] initMatrix = {{0, -3, 0, 7},
+                {-3, 0, 1 << 20, 2},
+                {0, 1 << 20, 0, 5},
+                {7, 2, 5, 0}};
+
+        // act
+        Graph binary = Main.modifyGraph(new Graph(initMatrix), 0, graph -> new Prim(graph, QueueType.BINARY));
+        Graph bucket = Main.modifyGraph(new Graph(initMatrix), 0, graph -> new Prim(graph, QueueType.BUCKET));
+
+        // assert
+        assertArrayEquals(binary.retrieveModifiedWeightMatrix(), bucket.retrieveModifiedWeightMatrix());
+        assertEquals(4, bucket.getMinimalSpanningTreeSummaryWeight());
+    }
+
+    @Test
+    void filterKruskalOnLargeSparseGraph() {
+        // arrange: рёбер больше порога, при котором filter-Kruskal начинает делить массив
+        int[][] initMatrix = randomMatrix(new Random(3), 400, 10, true);
+
+        // act
+        Graph kruskal = Main.modifyGraph(new Graph(initMatrix), 0, Kruskal::new);
+        Graph filterKruskal = Main.modifyGraph(new Graph(initMatrix), 0, graph -> new Kruskal(graph, true));
+
+        // assert
+        assertArrayEquals(kruskal.retrieveModifiedWeightMatrix(), filterKruskal.retrieveModifiedWeightMatrix());
+    }
+
+    @Test
+    void engineSelectionByGraphShape() {
+        // arrange
+        Graph dense = new Graph(randomMatrix(new Random(5), 50, 2, true));
+        int[][] sparseMatrix = randomMatrix(new Random(5), 200, 50, true);
+        for (int i = 1; i < sparseMatrix.length; i++) { // остовный путь, чтобы граф был связным
+            sparseMatrix[i][i - 1] = 100_000 + i;
+            sparseMatrix[i - 1][i] = 100_000 + i;
+        }
+        Graph sparse = new Graph(sparseMatrix);
+        Graph fragmented = new Graph(randomMatrix(new Random(5), 200, 50, true));
+        Graph medium = new Graph(randomMatrix(new Random(5), 200, 12, true));
+
+        // act, assert
+        assertEquals(MstAlgorithm.DENSE_PRIM, MstEngineSelector.selectByShape(dense, 4));
+        assertEquals(MstAlgorithm.KRUSKAL, MstEngineSelector.selectByShape(sparse, 4));
+        assertEquals(MstAlgorithm.PRIM, MstEngineSelector.selectByShape(medium, 4));
+        assertEquals(MstAlgorithm.FOREST, MstEngineSelector.selectByShape(fragmented, 4));
+        System.setProperty(MstEngineSelector.ENGINE_PROPERTY, "boruvka");
+        try {
+            assertEquals(MstAlgorithm.BORUVKA, MstEngineSelector.select(dense));
+        } finally {
+            System.clearProperty(MstEngineSelector.ENGINE_PROPERTY);
+        }
+    }
+
+    @Test
+    void forestComponentWeights() {
+        // arrange
+        int[][] initMatrix = {{0, 2, 0, 7, 0, 0, 0},
+                {2, 0, 4, 5, 0, 0, 0},
+                {0, 4, 0, 9, 0, 0, 0},
+                {7, 5, 9, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 1, 5},
+                {0, 0, 0, 0, 1, 0, 6},
+                {0, 0, 0, 0, 5, 6, 0}
+        };
+
+        // act
+        Graph graph = Main.modifyGraph(new Graph(initMatrix), 3);
+
+        // assert
+        assertEquals(2, graph.getComponentCount());
+        assertArrayEquals(new int[] {0, 0, 0, 0, 1, 1, 1}, graph.getComponentIds());
+        assertArrayEquals(new long[] {11, 6}, graph.getComponentWeights());
+    }
+
+    @Test
+    void longPathDoesNotOverflowStack() {
+        // arrange: путь из миллиона вершин, рекурсивный обход на нём переполнял стек
+        int n = 1_000_000;
+        CsrGraph.Builder builder = CsrGraph.builder(n);
+        for (int i = 1; i < n; i++) {
+            builder.addEdge(i - 1, i, 1);
+        }
+
+        // act
+        Graph graph = new Graph(builder.build());
+
+        // assert
+        assertEquals(1, graph.getComponentCount());
+    }
+
+    @Test
+    void forestAgreesWithPrim() {
+        // arrange: много маленьких компонент, больше одного пакета вершин - компоненты обрабатываются параллельно
+        int n = 3 * MinimumSpanningForest.BATCH_SIZE;
+        Random random = new Random(13);
+        CsrGraph.Builder builder = CsrGraph.builder(n);
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < 2; k++) {
+                int j = i + 1 + random.nextInt(20);
+                if (j < n && random.nextInt(3) > 0) {
+                    builder.addEdge(i, j, 1 + random.nextInt(1000));
+                }
+            }
+        }
+        CsrGraph csrGraph = builder.build();
+
+        // act
+        Graph primGraph = new Graph(csrGraph);
+        new Prim(primGraph).run(0);
+        Graph forestGraph = new Graph(csrGraph);
+        MinimumSpanningForest forest = new MinimumSpanningForest(forestGraph);
+        forest.run(0);
+
+        // assert
+        ForestResult result = forest.getResult();
+        assertTrue(result.getComponentCount() > 1);
+        assertEquals(forestGraph.getComponentCount(), result.getComponentCount());
+        assertArrayEquals(forestGraph.getComponentWeights(), primGraph.getComponentWeights());
+        long total = 0;
+        for (long weight : primGraph.getComponentWeights()) {
+            total += weight;
+        }
+        assertEquals(total, result.getTotalWeight());
+    }
+
+    @Test
+    void matrixScanMatchesCsrAndReportsFirstError() {
+        // arrange: матрица из нескольких блоков строк, чтобы проверка шла параллельно
+        int n = 600;
+        int[][] matrix = randomMatrix(new Random(17), n, 10, false);
+
+        // act
+        CsrGraph scanned = MatrixScanner.scan(matrix);
+        CsrGraph expected = CsrGraph.fromMatrix(matrix);
+        matrix[450][300]++; // несимметричная ячейка в одном из последних блоков
+        matrix[520][520] = 1; // и петля ещё дальше
+        InvalidGraphException exception = assertThrows(InvalidGraphException.class,
+                () -> MatrixScanner.scan(matrix));
+
+        // assert
+        assertEquals(expected.getEdgeCount(), scanned.getEdgeCount());
+        for (int v = 0; v < n; v++) {
+            assertEquals(expected.edgesBegin(v), scanned.edgesBegin(v));
+            for (int e = expected.edgesBegin(v); e < expected.edgesEnd(v); e++) {
+                assertEquals(expected.getTarget(e), scanned.getTarget(e));
+                assertEquals(expected.getWeight(e), scanned.getWeight(e));
+            }
+        }
+        assertEquals(450, exception.getRow());
+        assertEquals(300, exception.getColumn());
+    }
+
+    @Test
+    void sparseResultMatchesMatrix() {
+        // arrange
+        int[][] initMatrix = {{0, 7, 0, 5, 0, 0, 0},
+                {7, 0, 8, 9, 7, 0, 0},
+                {0, 8, 0, 0, 5, 0, 0},
+                {5, 9, 0, 0, 15, 6, 0},
+                {0, 7, 5, 15, 0, 8, 9},
+                {0, 0, 0, 6, 8, 0, 11},
+                {0, 0, 0, 0, 9, 11, 0}
+        };
+
+        // act
+        Graph graph = Main.modifyGraph(new Graph(initMatrix), 3);
+        MstResult result = graph.getMstResult();
+        int[][] first = graph.retrieveModifiedWeightMatrix();
+        first[3][0] = 100; // матрица каждый раз новая, результат от её изменения не страдает
+
+        // assert
+        assertEquals(39, result.getTotalWeight());
+        assertEquals(6, result.getEdgeCount());
+        assertEquals(-1, result.getParent(3));
+        assertArrayEquals(Main.modifyWeightMatrix(initMatrix, 3), graph.retrieveModifiedWeightMatrix());
+        assertEquals(5, result.getWeight(0));
+        assertEquals(39, graph.getMinimalSpanningTreeSummaryWeight());
+    }
+}
@@ -0,0 +1,132 @@
+package org.axerold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Проверяет попадания в кэш, учёт стартовой вершины при равных весах и вытеснение.
+ */
+class MstCacheTest {
+    private static final int[][] DISTINCT = {{0, 7, 0, 5, 0, 0, 0},
+            {7, 0, 8, 9, 4, 0, 0},
+            {0, 8, 0, 0, 3, 0, 0},
+            {5, 9, 0, 0, 15, 6, 0},
+            {0, 4, 3, 15, 0, 1, 2},
+            {0, 0, 0, 6, 1, 0, 11},
+            {0, 0, 0, 0, 2, 11, 0}
+    };
+    private static final int[][] TIES = {{0, 1, 1},
+            {1, 0, 1},
+            {1, 1, 0}
+    };
+
+    @Test
+    void distinctWeightsHitForAnyStart() {
+        // arrange
+        MstCache cache = new MstCache(1 << 20);
+
+        // act
+        int[][] first = Main.modifyWeightMatrix(DISTINCT, 0, cache);
+        int[][] second = Main.modifyWeightMatrix(DISTINCT.clone(), 5, cache);
+        first[0][1] = 100; // возвращённую матрицу можно менять, кэш от этого не страдает
+        int[][] third = Main.modifyWeightMatrix(DISTINCT, 3, cache);
+
+        // assert
+        assertArrayEquals(Main.modifyWeightMatrix(DISTINCT, 3), second);
+        assertArrayEquals(second, third);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    void tiesAreCachedPerStartVertex() {
+        // arrange
+        MstCache cache = new MstCache(1 << 20);
+
+        // act
+        int[][] fromZero = Main.modifyWeightMatrix(TIES, 0, cache);
+        int[][] fromTwo = Main.modifyWeightMatrix(TIES, 2, cache);
+        Main.modifyWeightMatrix(TIES, 2, cache);
+
+        // assert
+        assertArrayEquals(Main.modifyWeightMatrix(TIES, 0), fromZero);
+        assertArrayEquals(Main.modifyWeightMatrix(TIES, 2), fromTwo);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void randomStartWithTiesIsNotReusedForExplicitStart() {
+        // arrange
+        int[][] expected = Main.modifyWeightMatrix(TIES, 0);
+
+        for (int attempt = 0; attempt < 20; attempt++) {
+            MstCache cache = new MstCache(1 << 20);
+
+            // act: дерево от случайной вершины не должно попасть в кэш
+            Main.modifyWeightMatrix(TIES, -1, cache);
+            int[][] fromZero = Main.modifyWeightMatrix(TIES, 0, cache);
+
+            // assert
+            assertArrayEquals(expected, fromZero);
+            assertEquals(1, cache.size());
+            assertEquals(0, cache.getHitCount());
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        // arrange: места хватает на две записи по три вершины
+        MstCache cache = new MstCache(2 * (96 + 2 * 4 * 3));
+        int[][] other = {{0, 2, 3}, {2, 0, 4}, {3, 4, 0}};
+        int[][] third = {{0, 5, 6}, {5, 0, 7}, {6, 7, 0}};
+        int[][] invalid = {{0, 1}, {2, 0}};
+
+        // act
+        Main.modifyWeightMatrix(TIES, 0, cache);
+        Main.modifyWeightMatrix(other, 0, cache);
+        Main.modifyWeightMatrix(TIES, 0, cache); // other становится самой старой записью
+        Main.modifyWeightMatrix(third, 0, cache);
+        Main.modifyWeightMatrix(TIES, 0, cache);
+        Main.modifyWeightMatrix(other, 0, cache);
+
+        // assert
+        assertNull(Main.modifyWeightMatrix(invalid, 0, cache));
+        assertEquals(2, cache.getEvictionCount()); // вытеснены other, затем third
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    void concurrentCallersShareResults() throws InterruptedException, ExecutionException {
+        // arrange
+        MstCache cache = new MstCache(1 << 20);
+        int[][] expected = Main.modifyWeightMatrix(DISTINCT, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // act
+        List<Future<int[][]>> futures = new ArrayList<>();
+        for (int k = 0; k < 200; k++) {
+            int startVertex = k % DISTINCT.length;
+            futures.add(executor.submit(() -> Main.modifyWeightMatrix(DISTINCT, startVertex, cache)));
+        }
+
+        // assert
+        for (Future<int[][]> future : futures) {
+            assertArrayEquals(expected, future.get());
+        }
+        executor.shutdown();
+        assertEquals(200, cache.getHitCount() + cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+}
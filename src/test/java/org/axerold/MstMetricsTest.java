@@ -0,0 +1,78 @@
+package org.axerold;
+
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет счётчики конвейера и их публикацию в JMX.
+ */
+class MstMetricsTest {
+
+    private static final int[][] MATRIX = {{0, 7, 0, 5, 0, 0, 0},
+            {7, 0, 8, 9, 7, 0, 0},
+            {0, 8, 0, 0, 5, 0, 0},
+            {5, 9, 0, 0, 15, 6, 0},
+            {0, 7, 5, 15, 0, 8, 9},
+            {0, 0, 0, 6, 8, 0, 11},
+            {0, 0, 0, 0, 9, 11, 0}
+    };
+
+    private static long edgesRelaxed(MstAlgorithm algorithm) {
+        MstMetrics.reset();
+        MstMetrics.setEnabled(true);
+        try {
+            Main.modifyGraph(new Graph(MATRIX), 3, algorithm::create);
+        } finally {
+            MstMetrics.setEnabled(false);
+        }
+        return MstMetrics.getEdgesRelaxed();
+    }
+
+    @Test
+    void primCountersAreExposedThroughJmx() throws JMException {
+        // arrange
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MstMetrics.OBJECT_NAME);
+        MstMetrics.setEnabled(false);
+        MstMetrics.reset();
+        Main.modifyGraph(new Graph(MATRIX), 3, Prim::new); // выключенные счётчики не меняются
+
+        // act
+        server.setAttribute(name, new Attribute("Enabled", true));
+        Main.modifyGraph(new Graph(MATRIX), 3, Prim::new);
+        MstMetrics.setEnabled(false);
+
+        // assert
+        assertEquals(7L, server.getAttribute(name, "HeapPushes"));
+        assertEquals(7L, server.getAttribute(name, "VerticesExtracted"));
+        assertEquals(1L, server.getAttribute(name, "EngineRuns"));
+        long relaxed = (Long) server.getAttribute(name, "EdgesRelaxed");
+        long decreases = (Long) server.getAttribute(name, "DecreaseKeys");
+        assertEquals(22L, relaxed); // каждое из 11 рёбер с двух сторон
+        assertTrue(decreases >= 6 && decreases <= relaxed);
+        assertTrue((Long) server.getAttribute(name, "ValidationNanos") > 0);
+        assertTrue((Long) server.getAttribute(name, "EngineNanos") > 0);
+    }
+
+    @Test
+    void everyEngineCountsEdges() {
+        // act
+        long dense = edgesRelaxed(MstAlgorithm.DENSE_PRIM);
+        long forest = edgesRelaxed(MstAlgorithm.FOREST);
+        long kruskal = edgesRelaxed(MstAlgorithm.KRUSKAL);
+        long boruvka = edgesRelaxed(MstAlgorithm.BORUVKA);
+
+        // assert
+        assertEquals(11, dense); // каждое ребро с конца, первым вошедшего в дерево
+        assertEquals(22, forest); // каждое ребро с двух сторон
+        assertTrue(kruskal >= 6 && kruskal <= 11); // проход останавливается, как только в лесе 6 рёбер
+        assertTrue(boruvka >= 11); // в первом раунде просматриваются все рёбра
+    }
+}
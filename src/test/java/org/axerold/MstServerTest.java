@@ -0,0 +1,133 @@
+package org.axerold;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет протокол сервера: несколько запросов по одному соединению, ответ на некорректный запрос
+ * и таймаут чтения запроса.
+ */
+class MstServerTest {
+
+    @Test
+    void solvesRequestsOverOneConnection() throws IOException {
+        try (MstServer server = new MstServer(0, 2, 4, 1 << 16)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                 DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                for (int startVertex = 0; startVertex < 3; startVertex++) {
+                    // arrange: треугольник 0-1 (1), 1-2 (2), 0-2 (3)
+                    int[][] edges = {{0, 1, 1}, {1, 2, 2}, {0, 2, 3}};
+
+                    // act
+                    writeRequest(out, 3, startVertex, edges);
+                    in.readInt();
+                    byte status = in.readByte();
+                    int vertexCount = in.readInt();
+                    long totalWeight = in.readLong();
+                    int edgeCount = in.readInt();
+                    long sum = 0;
+                    for (int e = 0; e < edgeCount; e++) {
+                        in.readInt();
+                        in.readInt();
+                        sum += in.readInt();
+                    }
+
+                    // assert
+                    assertEquals(MstServer.OK, status);
+                    assertEquals(3, vertexCount);
+                    assertEquals(3, totalWeight);
+                    assertEquals(2, edgeCount);
+                    assertEquals(3, sum);
+                }
+
+                // act: стартовой вершины нет в графе
+                writeRequest(out, 2, 5, new int[][]{{0, 1, 1}});
+                int length = in.readInt();
+                byte status = in.readByte();
+                in.skipNBytes(length - 1);
+
+                // assert
+                assertEquals(MstServer.BAD_REQUEST, status);
+            }
+        }
+    }
+
+    @Test
+    void rejectsHugeVertexCountWithoutAllocating() throws IOException {
+        // arrange: бюджет памяти сервера - 256 КиБ
+        try (MstServer server = new MstServer(0, 1, 1, 1 << 16, 1 << 18)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                 DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                byte[] statuses = new byte[4];
+                int[] vertexCounts = {Integer.MAX_VALUE, 500_000_000, 16_000, 3};
+
+                // act: больше maxFrameBytes / 4 вершин, затем больше бюджета памяти, затем корректный запрос
+                for (int k = 0; k < vertexCounts.length; k++) {
+                    writeRequest(out, vertexCounts[k], 0, new int[][]{{0, 1, 1}, {1, 2, 2}});
+                    int length = in.readInt();
+                    statuses[k] = in.readByte();
+                    in.skipNBytes(length - 1);
+                }
+
+                // assert: соединение не разрывается
+                assertArrayEquals(new byte[]{MstServer.BAD_REQUEST, MstServer.BAD_REQUEST, MstServer.BAD_REQUEST,
+                        MstServer.OK}, statuses);
+            }
+        }
+    }
+
+    @Test
+    void slowRequestReleasesItsPlace() throws IOException {
+        // arrange: одно место для запроса, рёбра ждутся 200 мс
+        try (MstServer server = new MstServer(0, 1, 0, 1 << 16, 1 << 18, 200)) {
+            server.start();
+            try (Socket slow = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 DataOutputStream slowOut = new DataOutputStream(slow.getOutputStream());
+                 DataInputStream slowIn = new DataInputStream(slow.getInputStream());
+                 Socket fast = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 DataOutputStream fastOut = new DataOutputStream(fast.getOutputStream());
+                 DataInputStream fastIn = new DataInputStream(fast.getInputStream())) {
+                // act: заголовок обещает одно ребро, но ребро так и не приходит
+                slowOut.writeInt(3 * Integer.BYTES * 2);
+                slowOut.writeInt(2);
+                slowOut.writeInt(0);
+                slowOut.writeInt(1);
+                slowOut.flush();
+                slowIn.readInt();
+                byte slowStatus = slowIn.readByte();
+                writeRequest(fastOut, 2, 0, new int[][]{{0, 1, 1}});
+                fastIn.readInt();
+                byte fastStatus = fastIn.readByte();
+
+                // assert: после таймаута место свободно для следующего запроса
+                assertEquals(MstServer.BAD_REQUEST, slowStatus);
+                assertEquals(MstServer.OK, fastStatus);
+            }
+        }
+    }
+
+    private static void writeRequest(DataOutputStream out, int vertexCount, int startVertex, int[][] edges)
+            throws IOException {
+        out.writeInt(3 * Integer.BYTES * (1 + edges.length));
+        out.writeInt(vertexCount);
+        out.writeInt(startVertex);
+        out.writeInt(edges.length);
+        for (int[] edge : edges) {
+            out.writeInt(edge[0]);
+            out.writeInt(edge[1]);
+            out.writeInt(edge[2]);
+        }
+        out.flush();
+    }
+}
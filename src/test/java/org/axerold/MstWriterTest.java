@@ -0,0 +1,61 @@
+package org.axerold;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что все форматы потокового вывода задают то же дерево, что и матрица весов.
+ */
+class MstWriterTest {
+    private static final int[][] INIT_MATRIX = {{0, 7, 0, 5, 0, 0, 0},
+            {7, 0, 8, 9, 7, 0, 0},
+            {0, 8, 0, 0, 5, 0, 0},
+            {5, 9, 0, 0, 15, 6, 0},
+            {0, 7, 5, 15, 0, 8, 9},
+            {0, 0, 0, 6, 8, 0, 11},
+            {0, 0, 0, 0, 9, 11, 0}
+    };
+
+    @Test
+    void matrixFormatMatchesToString() throws IOException {
+        // arrange
+        Graph graph = Main.modifyGraph(new Graph(INIT_MATRIX), 3);
+        Path output = Files.createTempFile("output", ".txt");
+
+        // act
+        MstWriter.write(graph, output, MstWriter.Format.MATRIX);
+
+        // assert
+        graph.retrieveModifiedWeightMatrix();
+        assertEquals(graph.toString(), Files.readString(output));
+        Files.delete(output);
+    }
+
+    @Test
+    void edgeListAndBinaryFormatsCanBeReadBack() throws IOException {
+        // arrange
+        Graph graph = Main.modifyGraph(new Graph(INIT_MATRIX), 3);
+        int[][] expected = graph.retrieveModifiedWeightMatrix();
+        Path edges = Files.createTempFile("output", ".edges");
+        Path binary = Files.createTempFile("output", ".csr");
+
+        // act
+        MstWriter.write(graph, edges, MstWriter.Format.forPath(edges, MstWriter.Format.MATRIX));
+        MstWriter.write(graph, binary, MstWriter.Format.forPath(binary, MstWriter.Format.MATRIX));
+
+        // assert
+        try (EdgeListReader reader = new EdgeListReader(edges)) {
+            Graph tree = Main.modifyGraph(new Graph(reader.readGraph()), reader.getStartVertex());
+            assertArrayEquals(expected, tree.retrieveModifiedWeightMatrix());
+        }
+        Graph tree = Main.modifyGraph(new Graph(BinaryGraphFormat.map(binary)), 0);
+        assertArrayEquals(expected, tree.retrieveModifiedWeightMatrix());
+        Files.delete(edges);
+        Files.delete(binary);
+    }
+}
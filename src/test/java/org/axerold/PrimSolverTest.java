@@ -0,0 +1,85 @@
+package org.axerold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что общий решатель даёт те же деревья, что и {@link Prim}, при одновременной работе многих потоков
+ * с одним графом, и не изменяет сам граф.
+ */
+class PrimSolverTest {
+
+    @Test
+    void concurrentSolvesOnSharedGraphMatchPrim() throws InterruptedException, ExecutionException {
+        // arrange
+        int n = 300;
+        Random random = new Random(5);
+        CsrGraph.Builder builder = CsrGraph.builder(n);
+        for (int i = 1; i < n; i++) {
+            builder.addEdge(random.nextInt(i), i, 1 + random.nextInt(10));
+            builder.addEdge(random.nextInt(i), i, 1 + random.nextInt(10));
+        }
+        Graph graph = new Graph(builder.build());
+        int[][] expected = new int[n][];
+        for (int start = 0; start < n; start++) {
+            expected[start] = Main.modifyGraph(new Graph(graph.getCsrGraph()), start, Prim::new)
+                    .getMstResult().toMatrix()[start];
+        }
+        PrimSolver solver = new PrimSolver(4, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // act
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int k = 0; k < 2000; k++) {
+            int start = k % n;
+            futures.add(executor.submit(() -> solver.solve(graph, start).toMatrix()[start]));
+        }
+
+        // assert
+        for (int k = 0; k < futures.size(); k++) {
+            assertArrayEquals(expected[k % n], futures.get(k).get());
+        }
+        executor.shutdown();
+        assertNull(graph.getMstResult());
+        assertTrue(solver.getPooledCount() <= 4);
+    }
+
+    @Test
+    void workspaceIsReusedForDifferentGraphs() {
+        // arrange
+        int[][] big = {{0, 7, 0, 5, 0, 0, 0},
+                {7, 0, 8, 9, 7, 0, 0},
+                {0, 8, 0, 0, 5, 0, 0},
+                {5, 9, 0, 0, 15, 6, 0},
+                {0, 7, 5, 15, 0, 8, 9},
+                {0, 0, 0, 6, 8, 0, 11},
+                {0, 0, 0, 0, 9, 11, 0}
+        };
+        int[][] small = {{0, 2, 3}, {2, 0, 1}, {3, 1, 0}};
+        PrimSolver solver = new PrimSolver(1, 3);
+
+        // act
+        MstResult first = solver.solve(new Graph(small), 0);
+        MstResult second = solver.solve(new Graph(big), 3);
+        MstResult third = solver.solve(new Graph(small), 2);
+
+        // assert
+        assertEquals(3, first.getTotalWeight());
+        assertArrayEquals(Main.modifyWeightMatrix(big, 3), second.toMatrix());
+        assertEquals(3, third.getTotalWeight());
+        assertEquals(1, solver.getPooledCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> solver.solve(new Graph(small), 3));
+    }
+}